@@ -0,0 +1,24 @@
+package com.appknox.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of target/benchmarks.jar. Takes the usual JMH command line (benchmark regex, -p,
+ * -f, -wi, -i, -rf json, ...) and always adds the GC profiler, so every run reports allocation
+ * per operation (gc.alloc.rate.norm) next to throughput.
+ *
+ * Example: java -jar target/benchmarks.jar OutputParsing -p size=huge
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
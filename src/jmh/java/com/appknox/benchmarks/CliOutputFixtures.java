@@ -0,0 +1,126 @@
+package com.appknox.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * CLI outputs for the parsing benchmarks. Console outputs are synthetic but shaped like the real
+ * ones, in three sizes: small is what a fresh account prints, medium a busy organization and huge
+ * a few thousand rows. They are generated deterministically so runs on different machines parse
+ * the same text. Reports are the real ones checked into the repository (report.sarif and
+ * downloads/report_test.csv), read from the directory named by -Dbenchmarks.root, by default the
+ * working directory.
+ */
+public final class CliOutputFixtures {
+    public enum Size {
+        SMALL(3), MEDIUM(200), HUGE(4000);
+
+        private final int rows;
+
+        Size(int rows) {
+            this.rows = rows;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public static Size parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private static final String[] RISKS = {"Low", "Medium", "High", "Critical"};
+    private static final String[] NAMES = {
+            "Improper Content Provider Permissions", "Cleartext Traffic Allowed", "Weak Cryptography",
+            "Hardcoded Secrets", "Debug Enabled", "Insecure WebView Configuration"
+    };
+
+    private CliOutputFixtures() {
+    }
+
+    /**
+     * "appknox upload": one progress line per percent step, then the file ID.
+     */
+    public static String upload(Size size) {
+        StringBuilder out = new StringBuilder();
+        int steps = Math.max(size.getRows() / 10, 1) * 10;
+        for (int i = 1; i <= steps; i++) {
+            out.append("Uploading app-release.apk  ").append(i * 100 / steps).append("% |");
+            out.append("#".repeat(i * 40 / steps)).append(" ".repeat(40 - i * 40 / steps)).append("|\n");
+        }
+        out.append("Upload complete, waiting for static scan to start\n");
+        out.append(987654).append('\n');
+        return out.toString();
+    }
+
+    /**
+     * "appknox projects": two-space aligned table.
+     */
+    public static String projects(Size size) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-8s  %-32s  %-8s  %-10s  %s%n", "ID", "PACKAGE NAME", "PLATFORM", "FILE COUNT", "CREATED ON"));
+        for (int i = 0; i < size.getRows(); i++) {
+            out.append(String.format("%-8d  %-32s  %-8s  %-10d  %s%n", 1000 + i, "com.example.mobile.app" + i,
+                    i % 2 == 0 ? "android" : "ios", 1 + i % 7, "2024-05-" + String.format("%02d", 1 + i % 28) + " 10:22:31"));
+        }
+        return out.toString();
+    }
+
+    /**
+     * "appknox cicheck": banner, then a bordered pipe table with a RISK column.
+     */
+    public static String cicheck(Size size) {
+        StringBuilder out = new StringBuilder();
+        String border = "+--------+----------+------------------------------------------+\n";
+        out.append("Found ").append(size.getRows()).append(" vulnerabilities with risk >= low\n");
+        out.append(border);
+        out.append(String.format("| %-6s | %-8s | %-40s |%n", "ID", "RISK", "VULNERABILITY NAME"));
+        out.append(border);
+        for (int i = 0; i < size.getRows(); i++) {
+            out.append(String.format("| %-6d | %-8s | %-40s |%n", 5000 + i, RISKS[i % RISKS.length], NAMES[i % NAMES.length]));
+        }
+        out.append(border);
+        return out.toString();
+    }
+
+    /**
+     * "appknox reports create": the report ID on its own, after whatever the CLI logged.
+     */
+    public static String reportCreate(Size size) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < size.getRows() / 50; i++) {
+            out.append("Waiting for report generation...\n");
+        }
+        out.append("Report ID: 4411\n");
+        return out.toString();
+    }
+
+    /**
+     * The SARIF report written by "appknox sarif" (report.sarif, about 100 KB).
+     */
+    public static String sarifReport() {
+        return read(Path.of("report.sarif"));
+    }
+
+    /**
+     * The summary CSV written by "appknox reports download summary-csv" (downloads/report_test.csv).
+     */
+    public static String csvReport() {
+        return read(Path.of("downloads", "report_test.csv"));
+    }
+
+    private static String read(Path relative) {
+        Path file = Path.of(System.getProperty("benchmarks.root", ".")).resolve(relative);
+        try {
+            return Files.readString(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + file.toAbsolutePath()
+                    + "; run from the repository root or set -Dbenchmarks.root", e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.appknox.benchmarks;
+
+import com.appknox.core.CicheckDifferential;
+import com.appknox.core.CliTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cost of the parsing done on every CLI output: file ID, project ID, cicheck risks and report ID.
+ * Each "legacy" benchmark is the split/regex code those call sites used before CliTable, kept here
+ * as the baseline to compare against. Report files are measured in {@link ReportParsingBenchmarks}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutputParsingBenchmarks {
+    @Param({"small", "medium", "huge"})
+    public String size;
+
+    private String uploadOutput;
+    private String projectsOutput;
+    private String cicheckOutput;
+    private String reportOutput;
+
+    @Setup
+    public void setUp() {
+        CliOutputFixtures.Size fixtureSize = CliOutputFixtures.Size.parse(size);
+        uploadOutput = CliOutputFixtures.upload(fixtureSize);
+        projectsOutput = CliOutputFixtures.projects(fixtureSize);
+        cicheckOutput = CliOutputFixtures.cicheck(fixtureSize);
+        reportOutput = CliOutputFixtures.reportCreate(fixtureSize);
+    }
+
+    // ---------- file ID ----------
+
+    @Benchmark
+    public String fileIdLegacy() {
+        String fileId = null;
+        for (String line : uploadOutput.split("\\R")) {
+            line = line.trim();
+            if (line.matches("\\d+")) {
+                fileId = line;
+            }
+        }
+        return fileId;
+    }
+
+    @Benchmark
+    public String fileIdCliTable() {
+        return CliTable.lastNumericLine(uploadOutput);
+    }
+
+    // ---------- project ID ----------
+
+    @Benchmark
+    public String projectIdLegacy() {
+        return Arrays.stream(projectsOutput.split("\\r?\\n"))
+                .filter(line -> line.trim().matches("^\\d+\\s+.*"))
+                .map(line -> line.trim().split("\\s+")[0])
+                .findFirst()
+                .orElse(null);
+    }
+
+    @Benchmark
+    public String projectIdCliTable() {
+        return CliTable.parse(projectsOutput, "ID").getRows().stream()
+                .filter(row -> row.getLong("ID") != null)
+                .map(row -> row.get("ID"))
+                .findFirst()
+                .orElse(null);
+    }
+
+    // ---------- cicheck risks ----------
+
+    @Benchmark
+    public List<String> riskLegacy() {
+        // compiled per call, as the CICheckTests call sites did
+        Pattern riskPattern = Pattern.compile("\\b(Low|Medium|High|Critical)\\b", Pattern.CASE_INSENSITIVE);
+        Matcher matcher = riskPattern.matcher(cicheckOutput);
+        List<String> risksFound = new ArrayList<>();
+        while (matcher.find()) {
+            risksFound.add(matcher.group(1));
+        }
+        return risksFound;
+    }
+
+    @Benchmark
+    public List<CicheckDifferential.Finding> riskCliTable() {
+        return CicheckDifferential.parseFindings(cicheckOutput);
+    }
+
+    // ---------- report ID ----------
+
+    @Benchmark
+    public String reportIdLegacy() {
+        return reportOutput.trim().replaceAll("[^0-9]", "");
+    }
+
+    @Benchmark
+    public String reportIdField() {
+        return CliTable.idField(reportOutput);
+    }
+}
@@ -0,0 +1,81 @@
+package com.appknox.benchmarks;
+
+import com.appknox.core.CsvReportValidator;
+import com.appknox.core.PhraseMatcher;
+import com.appknox.core.ReportSummary;
+import com.appknox.core.SarifReportValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of checking the real reports in the repository: keyword assertions on the SARIF text
+ * (lowercase-and-contains as the report tests did before PhraseMatcher, against one streaming
+ * scan) and full validation of the SARIF and summary CSV reports. Reports are read into memory in
+ * setup, so disk I/O is not measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReportParsingBenchmarks {
+    private static final String[] SARIF_PHRASES = {"sarif", "version", "runs", "results"};
+    private static final String[] FORBIDDEN_PHRASES = {"unauthorized", "traceback"};
+
+    private String sarifReport;
+    private String csvReport;
+    private PhraseMatcher sarifMatcher;
+
+    @Setup
+    public void setUp() {
+        sarifReport = CliOutputFixtures.sarifReport();
+        csvReport = CliOutputFixtures.csvReport();
+        sarifMatcher = PhraseMatcher.expecting(SARIF_PHRASES).forbidding(FORBIDDEN_PHRASES);
+    }
+
+    // ---------- keyword assertions ----------
+
+    @Benchmark
+    public boolean keywordsLegacy() {
+        String lower = sarifReport.toLowerCase();
+        boolean any = false;
+        for (String phrase : SARIF_PHRASES) {
+            any |= lower.contains(phrase);
+        }
+        for (String phrase : FORBIDDEN_PHRASES) {
+            if (lower.contains(phrase)) return false;
+        }
+        return any;
+    }
+
+    @Benchmark
+    public boolean keywordsPhraseMatcher() {
+        PhraseMatcher.Verdict verdict = sarifMatcher.scan(sarifReport);
+        return verdict.anyExpected() && verdict.noneForbidden();
+    }
+
+    // ---------- report validation ----------
+
+    @Benchmark
+    public SarifReportValidator.Result sarifValidator() {
+        return new SarifReportValidator().validate(new StringReader(sarifReport));
+    }
+
+    @Benchmark
+    public ReportSummary csvValidator() throws IOException {
+        return new CsvReportValidator().validate(new StringReader(csvReport), null);
+    }
+}
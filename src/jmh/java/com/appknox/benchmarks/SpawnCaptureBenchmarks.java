@@ -0,0 +1,203 @@
+package com.appknox.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of spawning the CLI and capturing its output, measured against a local stub that prints
+ * {@code outputBytes} of table-like text to stdout plus one line to stderr.
+ *
+ * {@code spawn} captures through pipes drained by threads, {@code spawnFileMmap} redirects stdout
+ * and stderr to a file that is memory-mapped and decoded after exit; it has no drain threads, so
+ * it does not take the capture and threads parameters.
+ *
+ * Parameters:
+ * capture - for spawn: "lineReader" (what CLIExecutor does: BufferedReader.readLine into a
+ *           StringBuilder), "transferTo" (InputStream.transferTo into a byte buffer, decoded once)
+ *           or "separateStreams" (stdout and stderr drained by two threads instead of merged);
+ * env     - "full" (copy of the parent environment, as ProcessBuilder starts with) or "minimal"
+ *           (only PATH and HOME);
+ * threads - for spawn: whether drain threads are "platform" or "virtual" threads.
+ *
+ * Example: java -jar target/benchmarks.jar SpawnCapture -p outputBytes=1048576 -p env=full
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpawnCaptureBenchmarks {
+    @Param({"1024", "102400", "1048576"})
+    public int outputBytes;
+
+    @Param({"full", "minimal"})
+    public String env;
+
+    /**
+     * Parameters of the pipe strategies only, so that fileMmap is not run once per value.
+     */
+    @State(Scope.Benchmark)
+    public static class Pipes {
+        @Param({"lineReader", "transferTo", "separateStreams"})
+        public String capture;
+
+        @Param({"platform", "virtual"})
+        public String threads;
+    }
+
+    private Path directory;
+    private Path stub;
+    private Path outputFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("spawn-bench");
+        stub = directory.resolve("appknox-stub");
+        Files.writeString(stub, "#!/bin/sh\n"
+                + "yes '12345  High      Cleartext traffic allowed in network config' | head -c \"$1\"\n"
+                + "echo 'warning: using stub' >&2\n");
+        Files.setPosixFilePermissions(stub, PosixFilePermissions.fromString("rwxr-xr-x"));
+        outputFile = directory.resolve("output.txt");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(outputFile);
+        Files.deleteIfExists(stub);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public String spawn(Pipes pipes) throws IOException, InterruptedException {
+        ProcessBuilder pb = processBuilder();
+        boolean virtual = pipes.threads.equals("virtual");
+        return switch (pipes.capture) {
+            case "lineReader" -> lineReader(pb, virtual);
+            case "transferTo" -> transferTo(pb, virtual);
+            case "separateStreams" -> separateStreams(pb, virtual);
+            default -> throw new IllegalArgumentException("Unknown capture strategy: " + pipes.capture);
+        };
+    }
+
+    @Benchmark
+    public String spawnFileMmap() throws IOException, InterruptedException {
+        return fileMmap(processBuilder());
+    }
+
+    private ProcessBuilder processBuilder() {
+        ProcessBuilder pb = new ProcessBuilder(List.of(stub.toString(), String.valueOf(outputBytes)));
+        Map<String, String> processEnv = pb.environment();
+        if (env.equals("minimal")) {
+            processEnv.clear();
+            processEnv.put("HOME", System.getProperty("user.home"));
+        }
+        processEnv.put("PATH", System.getenv("PATH"));
+        return pb;
+    }
+
+    // ---------- capture strategies ----------
+
+    private String lineReader(ProcessBuilder pb, boolean virtual) throws IOException, InterruptedException {
+        pb.redirectErrorStream(true);
+        Process process = pb.start();
+        StringBuilder output = new StringBuilder();
+        Thread drain = drainThread(virtual, () -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    output.append(line).append("\n");
+                }
+            }
+        });
+        process.waitFor();
+        drain.join();
+        return output.toString();
+    }
+
+    private String transferTo(ProcessBuilder pb, boolean virtual) throws IOException, InterruptedException {
+        pb.redirectErrorStream(true);
+        Process process = pb.start();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Thread drain = drainThread(virtual, () -> {
+            try (InputStream in = process.getInputStream()) {
+                in.transferTo(output);
+            }
+        });
+        process.waitFor();
+        drain.join();
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    private String fileMmap(ProcessBuilder pb) throws IOException, InterruptedException {
+        pb.redirectErrorStream(true);
+        pb.redirectOutput(outputFile.toFile());
+        pb.start().waitFor();
+        try (FileChannel channel = FileChannel.open(outputFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return StandardCharsets.UTF_8.decode(buffer).toString();
+        }
+    }
+
+    private String separateStreams(ProcessBuilder pb, boolean virtual) throws IOException, InterruptedException {
+        Process process = pb.start();
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+        Thread outDrain = drainThread(virtual, () -> {
+            try (InputStream in = process.getInputStream()) {
+                in.transferTo(stdout);
+            }
+        });
+        Thread errDrain = drainThread(virtual, () -> {
+            try (InputStream in = process.getErrorStream()) {
+                in.transferTo(stderr);
+            }
+        });
+        process.waitFor();
+        outDrain.join();
+        errDrain.join();
+        return stdout.toString(StandardCharsets.UTF_8) + stderr.toString(StandardCharsets.UTF_8);
+    }
+
+    private interface Drain {
+        void run() throws IOException;
+    }
+
+    private static Thread drainThread(boolean virtual, Drain drain) {
+        Runnable task = () -> {
+            try {
+                drain.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        return virtual ? Thread.ofVirtual().start(task) : Thread.ofPlatform().start(task);
+    }
+}
@@ -0,0 +1,202 @@
+package com.appknox.core;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Uploads every APK/IPA in a directory (or matching a glob) with at most {@code parallelism}
+ * concurrent "appknox upload" processes. A failed file is recorded in the manifest and does not
+ * stop the rest of the batch.
+ */
+public class BatchUploader {
+    private final CLIExecutor executor;
+    private final String cliPath;
+    private final Map<String, String> env;
+    private final int parallelism;
+
+    public BatchUploader(CLIExecutor executor, String cliPath, Map<String, String> env, int parallelism) {
+        this.executor = executor;
+        this.cliPath = cliPath;
+        this.env = env;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Last line of upload output that is purely numeric, same rule as UPLOAD-001.
+     */
+    public static String extractFileId(String output) {
+        return CliTable.lastNumericLine(output);
+    }
+
+    /**
+     * A directory yields its *.apk / *.ipa files; anything else is treated as a glob such as
+     * "builds/**&#47;*.apk", walked from its longest wildcard-free prefix.
+     */
+    public static List<Path> collectFiles(String directoryOrGlob) throws IOException {
+        Path directory = Paths.get(directoryOrGlob);
+        if (Files.isDirectory(directory)) {
+            try (Stream<Path> files = Files.list(directory)) {
+                return files.filter(Files::isRegularFile)
+                        .filter(p -> p.toString().toLowerCase().matches(".*\\.(apk|ipa)"))
+                        .sorted()
+                        .toList();
+            }
+        }
+
+        int wildcard = indexOfWildcard(directoryOrGlob);
+        String prefix = directoryOrGlob.substring(0, wildcard);
+        Path base = Paths.get(prefix.contains("/") ? prefix.substring(0, prefix.lastIndexOf('/') + 1) : ".");
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + directoryOrGlob);
+        if (!Files.isDirectory(base)) return List.of();
+        try (Stream<Path> files = Files.walk(base)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(p -> matcher.matches(base.equals(Paths.get(".")) ? base.relativize(p) : p))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static int indexOfWildcard(String glob) {
+        for (int i = 0; i < glob.length(); i++) {
+            if ("*?[{".indexOf(glob.charAt(i)) >= 0) return i;
+        }
+        return glob.length();
+    }
+
+    public List<ManifestEntry> upload(String directoryOrGlob) throws IOException {
+        return upload(collectFiles(directoryOrGlob));
+    }
+
+    public List<ManifestEntry> upload(List<Path> files) {
+        Semaphore permits = new Semaphore(parallelism);
+        List<ManifestEntry> manifest = new ArrayList<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<ManifestEntry>> futures = new ArrayList<>();
+            for (Path file : files) {
+                futures.add(pool.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return uploadOne(file);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            for (int i = 0; i < files.size(); i++) {
+                try {
+                    manifest.add(futures.get(i).get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (ExecutionException e) {
+                    manifest.add(new ManifestEntry(files.get(i), null, 0, 0, "Exception: " + e.getCause().getMessage()));
+                }
+            }
+        }
+        return manifest;
+    }
+
+    private ManifestEntry uploadOne(Path file) {
+        long bytes;
+        try {
+            bytes = Files.size(file);
+        } catch (IOException e) {
+            return new ManifestEntry(file, null, 0, 0, "Exception: " + e.getMessage());
+        }
+
+        CLIExecutor.CommandResult result = executor.executeCommand(List.of(cliPath, "upload", file.toString()), env);
+        String fileId = result.isSuccess() ? extractFileId(result.getOutput()) : null;
+        String error = fileId != null ? null : lastLine(result.getOutput());
+        return new ManifestEntry(file, fileId, result.getDurationMillis(), bytes, error);
+    }
+
+    private static String lastLine(String output) {
+        String[] lines = output.trim().split("\\R");
+        return lines.length > 0 ? lines[lines.length - 1] : output;
+    }
+
+    public static void writeManifest(List<ManifestEntry> manifest, Path target) throws IOException {
+        if (target.getParent() != null) Files.createDirectories(target.getParent());
+        try (Writer writer = Files.newBufferedWriter(target)) {
+            writer.write("path,file_id,duration_ms,bytes,error\n");
+            for (ManifestEntry entry : manifest) {
+                writer.write(entry.toCsvRow());
+                writer.write('\n');
+            }
+        }
+    }
+
+    public static class ManifestEntry {
+        private final Path path;
+        private final String fileId;
+        private final long durationMillis;
+        private final long bytes;
+        private final String error;
+
+        public ManifestEntry(Path path, String fileId, long durationMillis, long bytes, String error) {
+            this.path = path;
+            this.fileId = fileId;
+            this.durationMillis = durationMillis;
+            this.bytes = bytes;
+            this.error = error;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public String getFileId() {
+            return fileId;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return fileId != null;
+        }
+
+        String toCsvRow() {
+            return quote(path.toString()) + "," + (fileId != null ? fileId : "") + "," + durationMillis + ","
+                    + bytes + "," + (error != null ? quote(error) : "");
+        }
+
+        private static String quote(String value) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+
+        @Override
+        public String toString() {
+            return "ManifestEntry{" +
+                    "path=" + path +
+                    ", fileId=" + fileId +
+                    ", durationMillis=" + durationMillis +
+                    ", bytes=" + bytes +
+                    (error != null ? ", error='" + error + '\'' : "") +
+                    '}';
+        }
+    }
+}
@@ -1,25 +1,233 @@
 package com.appknox.core;
 
 import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
+import io.qameta.allure.Allure;
+
 public class CLIExecutor {
     private final int timeoutSeconds;
+    private final long sampleIntervalMillis;
+    private volatile RateLimitSettings rateLimit;
+    private volatile int breakerFailureThreshold;
+    private volatile long breakerOpenMillis;
+    private volatile LatencyHistory latencyHistory;
+    private volatile RetryPolicy retryPolicy;
+    private volatile HomeSandboxPool homeSandbox;
 
     public CLIExecutor(int timeoutSeconds) {
+        this(timeoutSeconds, 0);
+    }
+
+    /**
+     * @param sampleIntervalMillis interval for /proc resource sampling of the child, 0 disables it
+     */
+    public CLIExecutor(int timeoutSeconds, long sampleIntervalMillis) {
         this.timeoutSeconds = timeoutSeconds;
+        this.sampleIntervalMillis = sampleIntervalMillis;
+    }
+
+    /**
+     * Throttle invocations per APPKNOX_API_HOST through a shared {@link HostRateLimiter}.
+     */
+    public CLIExecutor withRateLimit(double initialRate, double minRate, double maxRate) {
+        this.rateLimit = new RateLimitSettings(initialRate, minRate, maxRate);
+        return this;
+    }
+
+    /**
+     * Fail fast per host and token after {@code failureThreshold} consecutive connectivity or auth
+     * failures, retrying one invocation every {@code openMillis}. See {@link CircuitBreaker}.
+     */
+    public CLIExecutor withCircuitBreaker(int failureThreshold, long openMillis) {
+        this.breakerFailureThreshold = failureThreshold;
+        this.breakerOpenMillis = openMillis;
+        return this;
+    }
+
+    /**
+     * Derive each invocation's timeout from the subcommand's latency history instead of the
+     * fixed timeout, which remains the fallback while a subcommand has too few samples.
+     */
+    public CLIExecutor withLatencyHistory(LatencyHistory history) {
+        this.latencyHistory = history;
+        return this;
+    }
+
+    public long timeoutMillisFor(List<String> command) {
+        LatencyHistory history = latencyHistory;
+        long fallback = timeoutSeconds * 1000L;
+        return history != null ? history.timeoutMillis(LatencyHistory.subcommandKey(command), fallback) : fallback;
+    }
+
+    /**
+     * Retry (and optionally hedge) subcommands the policy declares idempotent. Hedging needs
+     * {@link #withLatencyHistory} to know when an invocation is slower than usual.
+     */
+    public CLIExecutor withRetryPolicy(RetryPolicy policy) {
+        this.retryPolicy = policy;
+        return this;
+    }
+
+    /**
+     * Run every invocation with HOME/XDG directories from the pool instead of the user's, so
+     * concurrent invocations with different credentials cannot see each other's CLI state.
+     * HOME or XDG variables passed in {@code env} still take precedence.
+     */
+    public CLIExecutor withHomeSandbox(HomeSandboxPool pool) {
+        this.homeSandbox = pool;
+        return this;
     }
 
     public CommandResult executeCommand(List<String> command, Map<String, String> env) {
+        return executeCommand(command, env, null);
+    }
+
+    /**
+     * Like {@link #executeCommand(List, Map)}, with {@code phrases} matched against the output
+     * while it streams in; the verdict is on {@link CommandResult#getMatches()}. Results the CLI
+     * did not print, such as a circuit rejection, get a verdict with no matches.
+     */
+    public CommandResult executeCommand(List<String> command, Map<String, String> env, PhraseMatcher phrases) {
+        CommandResult result;
+        if (breakerFailureThreshold <= 0) {
+            result = executeWithRetry(command, env, phrases);
+        } else {
+            CircuitBreaker breaker = CircuitBreaker.forCredentials(hostOf(env), tokenOf(env),
+                    breakerFailureThreshold, breakerOpenMillis);
+            if (!breaker.allowRequest()) {
+                result = breaker.rejection();
+            } else {
+                result = executeWithRetry(command, env, phrases);
+                breaker.onResult(result);
+            }
+        }
+        // results the CLI never printed (circuit rejections, spawn errors) match nothing, so a
+        // negative test cannot pass on the executor's own message
+        if (phrases != null && result.getMatches() == null) {
+            result = result.withMatches(phrases.scan(""));
+        }
+        return result;
+    }
+
+    private CommandResult executeWithRetry(List<String> command, Map<String, String> env, PhraseMatcher phrases) {
+        RetryPolicy policy = retryPolicy;
+        if (policy == null || !policy.isIdempotent(command)) {
+            return executeLimited(command, env, phrases);
+        }
+
+        CommandResult result = null;
+        int attempts = 0;
+        while (attempts < policy.getMaxAttempts()) {
+            attempts++;
+            result = policy.isHedgingEnabled()
+                    ? executeHedged(command, env, policy, phrases) : executeLimited(command, env, phrases);
+            if (!RetryPolicy.isTransient(result) || attempts == policy.getMaxAttempts()) {
+                break;
+            }
+            try {
+                Thread.sleep(policy.backoffMillis(attempts));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return result.withAttempts(attempts);
+    }
+
+    // Launch a second identical invocation once the first outlives the latency percentile;
+    // the first successful result wins and the other process is killed through interruption
+    private CommandResult executeHedged(List<String> command, Map<String, String> env, RetryPolicy policy,
+                                        PhraseMatcher phrases) {
+        LatencyHistory history = latencyHistory;
+        long hedgeDelay = history != null
+                ? history.percentile(LatencyHistory.subcommandKey(command), policy.getHedgeQuantile()) : -1;
+        if (hedgeDelay < 0) {
+            return executeLimited(command, env, phrases);
+        }
+
+        ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+        CompletionService<CommandResult> completion = new ExecutorCompletionService<>(pool);
+        List<Future<CommandResult>> attempts = new ArrayList<>();
+        try {
+            attempts.add(completion.submit(() -> executeLimited(command, env, phrases)));
+            Future<CommandResult> done = completion.poll(hedgeDelay, TimeUnit.MILLISECONDS);
+            if (done != null) {
+                return done.get();
+            }
+            attempts.add(completion.submit(() -> executeLimited(command, env, phrases)));
+
+            CommandResult result = null;
+            for (int i = 0; i < attempts.size(); i++) {
+                result = completion.take().get();
+                if (result.isSuccess()) break;
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new CommandResult(-1, "Exception: interrupted while waiting for hedged invocation", false);
+        } catch (ExecutionException e) {
+            return new CommandResult(-1, "Exception: " + e.getCause().getMessage(), false);
+        } finally {
+            attempts.forEach(attempt -> attempt.cancel(true));
+            pool.shutdownNow();
+        }
+    }
+
+    private CommandResult executeLimited(List<String> command, Map<String, String> env, PhraseMatcher phrases) {
+        RateLimitSettings limit = rateLimit;
+        if (limit == null) {
+            return runProcess(command, env, phrases);
+        }
+
+        HostRateLimiter limiter = HostRateLimiter.forHost(hostOf(env), limit.initialRate, limit.minRate, limit.maxRate);
+        try {
+            limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new CommandResult(-1, "Exception: interrupted while waiting for rate limiter", false);
+        }
+        CommandResult result = runProcess(command, env, phrases);
+        limiter.onResult(result);
+        return result;
+    }
+
+    static String hostOf(Map<String, String> env) {
+        String host = env != null ? env.get("APPKNOX_API_HOST") : null;
+        return host != null ? host : "";
+    }
+
+    static String tokenOf(Map<String, String> env) {
+        String token = env != null ? env.get("APPKNOX_ACCESS_TOKEN") : null;
+        return token != null ? token : "";
+    }
+
+    private CommandResult runProcess(List<String> command, Map<String, String> env, PhraseMatcher phrases) {
+        Process process = null;
+        HomeSandboxPool sandbox = homeSandbox;
+        Path home = null;
         try {
             ProcessBuilder pb = new ProcessBuilder(command);
 
             Map<String, String> processEnv = pb.environment();
             processEnv.put("PATH", System.getenv("PATH"));
+            if (sandbox != null) {
+                home = sandbox.acquire(env);
+                processEnv.putAll(HomeSandboxPool.envFor(home));
+            }
             
             // Set env variableee
             if (env != null && !env.isEmpty()) {
@@ -28,29 +236,106 @@ public class CLIExecutor {
             }
 
             pb.redirectErrorStream(true);
-            Process process = pb.start();
+            long start = System.nanoTime();
+            process = pb.start();
 
+            ProcessSampler sampler = null;
+            if (sampleIntervalMillis > 0 && ProcessSampler.isSupported()) {
+                sampler = new ProcessSampler(process, sampleIntervalMillis);
+                sampler.start();
+            }
+
+            // drain on a separate thread so the timeout also applies while the CLI keeps stdout open
             StringBuilder output = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    output.append(line).append("\n");
+            PhraseMatcher.Scan scan = phrases != null ? phrases.newScan() : null;
+            InputStream stdout = process.getInputStream();
+            Thread drain = Thread.ofVirtual().start(() -> {
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(stdout))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        output.append(line).append("\n");
+                        if (scan != null) {
+                            scan.feed(line);
+                            scan.feed('\n');
+                        }
+                    }
+                } catch (IOException ignored) {
+                    // stream closed by destroyForcibly on timeout
                 }
-            }
+            });
 
-            boolean finished = process.waitFor(timeoutSeconds, TimeUnit.SECONDS);
+            long timeoutMillis = timeoutMillisFor(command);
+            boolean finished = process.waitFor(timeoutMillis, TimeUnit.MILLISECONDS);
+            long durationMillis = (System.nanoTime() - start) / 1_000_000;
+
+            ProcessSampler.ResourceUsage usage = null;
+            if (sampler != null) {
+                // no final reading: waitFor has reaped the child and its /proc entry is gone, so a
+                // spawn sample alone says nothing about the run and is not reported
+                sampler.stop();
+                usage = sampler.getUsage();
+                if (usage.getSamples() < 2) {
+                    usage = null;
+                } else {
+                    attachResourceUsage(command, usage);
+                }
+            }
             
+            LatencyHistory history = latencyHistory;
             if (!finished) {
-                process.destroyForcibly();
-                return new CommandResult(-1, "Command timeout after " + timeoutSeconds + " seconds", true);
+                destroyTree(process);
+                // censored at the timeout, so the adaptive timeout can grow past it
+                if (history != null) history.record(LatencyHistory.subcommandKey(command), timeoutMillis);
+                return new CommandResult(-1, "Command timeout after " + formatSeconds(timeoutMillis) + " seconds",
+                        true, usage, durationMillis);
             }
+            drain.join();
 
             int exitCode = process.exitValue();
-            return new CommandResult(exitCode, output.toString().trim(), false);
+            // failures the CLI reports itself (auth, host) return early and would skew the latency
+            if (history != null && (exitCode == 0 || CircuitBreaker.errorLine(output.toString()) == null)) {
+                history.record(LatencyHistory.subcommandKey(command), durationMillis);
+            }
+            return new CommandResult(exitCode, output.toString().trim(), false, usage, durationMillis,
+                    scan != null ? scan.verdict() : null);
 
+        } catch (InterruptedException e) {
+            // cancelled, e.g. the losing side of a hedged invocation
+            if (process != null) destroyTree(process);
+            Thread.currentThread().interrupt();
+            return new CommandResult(-1, "Command cancelled", false);
         } catch (Exception e) {
+            if (process != null) destroyTree(process);
             return new CommandResult(-1, "Exception: " + e.getMessage(), false);
+        } finally {
+            if (home != null) sandbox.release(home);
+        }
+    }
+
+    private static void destroyTree(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    private static String formatSeconds(long millis) {
+        return millis % 1000 == 0 ? String.valueOf(millis / 1000) : String.format("%.1f", millis / 1000.0);
+    }
+
+    private void attachResourceUsage(List<String> command, ProcessSampler.ResourceUsage usage) {
+        String subcommand = command.size() > 1 ? command.get(1) : command.get(0);
+        Allure.addAttachment("CLI Resource Usage [" + subcommand + "]", usage.toString());
+    }
+
+    private static class RateLimitSettings {
+        private final double initialRate;
+        private final double minRate;
+        private final double maxRate;
+
+        RateLimitSettings(double initialRate, double minRate, double maxRate) {
+            this.initialRate = initialRate;
+            this.minRate = minRate;
+            this.maxRate = maxRate;
         }
     }
 
@@ -58,11 +343,46 @@ public class CLIExecutor {
         private final int exitCode;
         private final String output;
         private final boolean timeout;
+        private final ProcessSampler.ResourceUsage resourceUsage;
+        private final long durationMillis;
+        private final PhraseMatcher.Verdict matches;
+        private final int attempts;
 
         public CommandResult(int exitCode, String output, boolean timeout) {
+            this(exitCode, output, timeout, null, 0);
+        }
+
+        public CommandResult(int exitCode, String output, boolean timeout, ProcessSampler.ResourceUsage resourceUsage) {
+            this(exitCode, output, timeout, resourceUsage, 0);
+        }
+
+        public CommandResult(int exitCode, String output, boolean timeout, ProcessSampler.ResourceUsage resourceUsage,
+                             long durationMillis) {
+            this(exitCode, output, timeout, resourceUsage, durationMillis, null);
+        }
+
+        public CommandResult(int exitCode, String output, boolean timeout, ProcessSampler.ResourceUsage resourceUsage,
+                             long durationMillis, PhraseMatcher.Verdict matches) {
+            this(exitCode, output, timeout, resourceUsage, durationMillis, matches, 1);
+        }
+
+        private CommandResult(int exitCode, String output, boolean timeout, ProcessSampler.ResourceUsage resourceUsage,
+                              long durationMillis, PhraseMatcher.Verdict matches, int attempts) {
             this.exitCode = exitCode;
             this.output = output;
             this.timeout = timeout;
+            this.resourceUsage = resourceUsage;
+            this.durationMillis = durationMillis;
+            this.matches = matches;
+            this.attempts = attempts;
+        }
+
+        CommandResult withMatches(PhraseMatcher.Verdict verdict) {
+            return new CommandResult(exitCode, output, timeout, resourceUsage, durationMillis, verdict, attempts);
+        }
+
+        CommandResult withAttempts(int count) {
+            return new CommandResult(exitCode, output, timeout, resourceUsage, durationMillis, matches, count);
         }
 
         public int getExitCode() {
@@ -81,12 +401,43 @@ public class CLIExecutor {
             return exitCode == 0;
         }
 
+        /**
+         * Peak RSS, CPU time and I/O of the child as last sampled before exit, so lower bounds; null
+         * when sampling was disabled or the command exited before a second sample.
+         */
+        public ProcessSampler.ResourceUsage getResourceUsage() {
+            return resourceUsage;
+        }
+
+        /**
+         * Wall-clock time from spawn to exit (or timeout), 0 when the CLI was never spawned.
+         */
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        /**
+         * Phrase verdict when the command ran with a {@link PhraseMatcher}, otherwise null.
+         */
+        public PhraseMatcher.Verdict getMatches() {
+            return matches;
+        }
+
+        /**
+         * Invocations the retry policy made for this result, 1 when it was not retried.
+         */
+        public int getAttempts() {
+            return attempts;
+        }
+
         @Override
         public String toString() {
             return "CommandResult{" +
                     "exitCode=" + exitCode +
                     ", output='" + output + '\'' +
                     ", timeout=" + timeout +
+                    (attempts > 1 ? ", attempts=" + attempts : "") +
+                    (resourceUsage != null ? ", resourceUsage=" + resourceUsage : "") +
                     '}';
         }
     }
@@ -0,0 +1,263 @@
+package com.appknox.core;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Verifies "appknox cicheck --risk-threshold" for every threshold from a single low-threshold run.
+ *
+ * The low run lists every finding with its RISK column. The expected findings for medium, high and
+ * critical are derived locally by filtering on that column, so only the thresholds chosen for
+ * verification are executed (all in parallel) and each is compared finding by finding with its
+ * derived set, instead of searching the whole output for risk words.
+ */
+public class CicheckDifferential {
+    public enum Risk {
+        LOW, MEDIUM, HIGH, CRITICAL;
+
+        public static Risk parse(String value) {
+            if (value == null) return null;
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        public String cliValue() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final CLIExecutor executor;
+    private final String cliPath;
+    private final Map<String, String> env;
+
+    public CicheckDifferential(CLIExecutor executor, String cliPath, Map<String, String> env) {
+        this.executor = executor;
+        this.cliPath = cliPath;
+        this.env = env;
+    }
+
+    /**
+     * Findings in a cicheck table: rows whose RISK cell is a known risk level. Border lines,
+     * banners and summary lines are skipped. Returns an empty list when there is no RISK header.
+     */
+    public static List<Finding> parseFindings(String output) {
+        CliTable table = CliTable.parse(output, "RISK");
+        int riskColumn = table.columnIndex("RISK");
+        List<Finding> findings = new ArrayList<>();
+        for (CliTable.Row row : table.getRows()) {
+            Risk risk = Risk.parse(row.get(riskColumn));
+            if (risk != null) {
+                findings.add(new Finding(row.getCells(), risk));
+            }
+        }
+        return findings;
+    }
+
+    /**
+     * Whether cicheck printed its findings table, i.e. a non-zero exit reports findings rather
+     * than a failure to run.
+     */
+    public static boolean listsFindings(String output) {
+        return CliTable.parse(output, "RISK").columnIndex("RISK") >= 0;
+    }
+
+    public static List<Finding> deriveForThreshold(List<Finding> baseline, Risk threshold) {
+        List<Finding> derived = new ArrayList<>();
+        for (Finding finding : baseline) {
+            if (finding.getRisk().compareTo(threshold) >= 0) derived.add(finding);
+        }
+        return derived;
+    }
+
+    public Result run(String fileId, Set<Risk> verifyThresholds) throws InterruptedException {
+        CLIExecutor.CommandResult low = cicheck(fileId, Risk.LOW);
+        List<Finding> baseline = parseFindings(low.getOutput());
+
+        Map<Risk, ThresholdCheck> checks = new EnumMap<>(Risk.class);
+        checks.put(Risk.LOW, new ThresholdCheck(Risk.LOW, baseline, low));
+
+        Map<Risk, Future<CLIExecutor.CommandResult>> runs = new EnumMap<>(Risk.class);
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Risk threshold : verifyThresholds) {
+                if (threshold != Risk.LOW) {
+                    runs.put(threshold, pool.submit(() -> cicheck(fileId, threshold)));
+                }
+            }
+            for (Risk threshold : Risk.values()) {
+                if (threshold == Risk.LOW) continue;
+                List<Finding> expected = deriveForThreshold(baseline, threshold);
+                CLIExecutor.CommandResult result = null;
+                if (runs.containsKey(threshold)) {
+                    try {
+                        result = runs.get(threshold).get();
+                    } catch (ExecutionException e) {
+                        result = new CLIExecutor.CommandResult(-1, "Exception: " + e.getCause().getMessage(), false);
+                    }
+                }
+                checks.put(threshold, new ThresholdCheck(threshold, expected, result));
+            }
+        }
+        return new Result(fileId, baseline, checks);
+    }
+
+    private CLIExecutor.CommandResult cicheck(String fileId, Risk threshold) {
+        return executor.executeCommand(List.of(cliPath, "cicheck", fileId, "--risk-threshold", threshold.cliValue()), env);
+    }
+
+    public static class Finding {
+        private final List<String> cells;
+        private final Risk risk;
+        private final String key;
+
+        public Finding(List<String> cells, Risk risk) {
+            this.cells = cells;
+            this.risk = risk;
+            this.key = String.join("|", cells);
+        }
+
+        public List<String> getCells() {
+            return cells;
+        }
+
+        public Risk getRisk() {
+            return risk;
+        }
+
+        /**
+         * Identity of the finding across runs: all of its cells.
+         */
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public String toString() {
+            return risk + " " + cells;
+        }
+    }
+
+    /**
+     * Derived expectation for one threshold and, when that threshold was executed, how the actual
+     * run compares to it.
+     */
+    public static class ThresholdCheck {
+        private final Risk threshold;
+        private final List<Finding> expected;
+        private final CLIExecutor.CommandResult result;
+        private final List<Finding> actual;
+        private final List<String> missing = new ArrayList<>();
+        private final List<String> unexpected = new ArrayList<>();
+
+        ThresholdCheck(Risk threshold, List<Finding> expected, CLIExecutor.CommandResult result) {
+            this.threshold = threshold;
+            this.expected = expected;
+            this.result = result;
+            this.actual = result != null ? parseFindings(result.getOutput()) : List.of();
+            if (result == null) return;
+
+            Set<String> expectedKeys = new LinkedHashSet<>();
+            expected.forEach(finding -> expectedKeys.add(finding.getKey()));
+            Set<String> actualKeys = new LinkedHashSet<>();
+            actual.forEach(finding -> actualKeys.add(finding.getKey()));
+            for (String key : expectedKeys) {
+                if (!actualKeys.contains(key)) missing.add(key);
+            }
+            for (String key : actualKeys) {
+                if (!expectedKeys.contains(key)) unexpected.add(key);
+            }
+        }
+
+        public Risk getThreshold() {
+            return threshold;
+        }
+
+        public List<Finding> getExpected() {
+            return expected;
+        }
+
+        public boolean isExecuted() {
+            return result != null;
+        }
+
+        public CLIExecutor.CommandResult getResult() {
+            return result;
+        }
+
+        public List<Finding> getActual() {
+            return actual;
+        }
+
+        public List<String> getMissing() {
+            return missing;
+        }
+
+        public List<String> getUnexpected() {
+            return unexpected;
+        }
+
+        /**
+         * cicheck fails the build exactly when something is at or above the threshold.
+         */
+        public boolean isExitCodeConsistent() {
+            return result == null || result.isSuccess() == expected.isEmpty();
+        }
+
+        public boolean isConsistent() {
+            return missing.isEmpty() && unexpected.isEmpty() && isExitCodeConsistent();
+        }
+
+        @Override
+        public String toString() {
+            return "ThresholdCheck{" +
+                    "threshold=" + threshold +
+                    ", expected=" + expected.size() +
+                    (result != null ? ", actual=" + actual.size() + ", exitCode=" + result.getExitCode() : ", derived only") +
+                    (missing.isEmpty() ? "" : ", missing=" + missing) +
+                    (unexpected.isEmpty() ? "" : ", unexpected=" + unexpected) +
+                    '}';
+        }
+    }
+
+    public static class Result {
+        private final String fileId;
+        private final List<Finding> baseline;
+        private final Map<Risk, ThresholdCheck> checks;
+
+        public Result(String fileId, List<Finding> baseline, Map<Risk, ThresholdCheck> checks) {
+            this.fileId = fileId;
+            this.baseline = baseline;
+            this.checks = checks;
+        }
+
+        public String getFileId() {
+            return fileId;
+        }
+
+        public List<Finding> getBaseline() {
+            return baseline;
+        }
+
+        public ThresholdCheck get(Risk threshold) {
+            return checks.get(threshold);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder("cicheck " + fileId + ": " + baseline.size() + " findings at low\n");
+            checks.values().forEach(check -> out.append("  ").append(check).append('\n'));
+            return out.toString();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.appknox.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Circuit breaker per host and access token.
+ *
+ * Only connectivity and authentication failures count: a failing "files 999999" still proves
+ * the host is up and the token valid. They are recognised on the CLI's own error line ("Error:
+ * ..."), never in listed findings, and a timeout alone does not count. After
+ * {@code failureThreshold} consecutive counted failures the circuit opens and invocations fail
+ * immediately with the recorded cause. Once {@code openMillis} has passed, a single trial
+ * invocation is let through (half-open): success closes the circuit, another counted failure
+ * re-opens it.
+ */
+public class CircuitBreaker {
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final Map<String, CircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+
+    // the CLI reports its own failure on a line starting with the level, e.g. "Error: dial tcp ..."
+    private static final Pattern ERROR_LINE = Pattern.compile(
+            "^[ \\t]*(?:(?:error|fatal|panic)\\b|erro\\[).*$", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
+
+    private static final Pattern CONNECTIVITY_PATTERN = Pattern.compile(
+            "connection refused|no such host|dial tcp|i/o timeout|network is unreachable|connection reset"
+                    + "|tls handshake|x509|certificate|could not resolve",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern AUTH_PATTERN = Pattern.compile(
+            "\\b401\\b|unauthori[sz]ed|invalid token|token.*expired|authentication credentials|not authenticated",
+            Pattern.CASE_INSENSITIVE);
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+    private String cause;
+
+    public CircuitBreaker(String name, int failureThreshold, long openMillis) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    public static CircuitBreaker forCredentials(String host, String token, int failureThreshold,
+                                                long openMillis) {
+        String tokenKey = token == null ? "" : Integer.toHexString(token.hashCode());
+        String key = (host == null ? "" : host) + "|" + tokenKey;
+        return BREAKERS.computeIfAbsent(key, k -> new CircuitBreaker(k, failureThreshold, openMillis));
+    }
+
+    /**
+     * Connectivity or auth cause found on the error line of a failed result, or null when the
+     * failure is unrelated. A cicheck that exits non-zero because it lists findings is not a
+     * failure here, even when a finding is named e.g. "... Certificate Pinning".
+     */
+    public static String classify(CLIExecutor.CommandResult result) {
+        if (result.isSuccess() || CicheckDifferential.listsFindings(result.getOutput())) return null;
+        String error = errorLine(result.getOutput());
+        if (error == null) return null;
+        if (CONNECTIVITY_PATTERN.matcher(error).find()) {
+            return "host unreachable";
+        }
+        if (AUTH_PATTERN.matcher(error).find()) {
+            return "authentication failed";
+        }
+        return null;
+    }
+
+    /**
+     * First line of the output on which the CLI reports an error, or null.
+     */
+    public static String errorLine(String output) {
+        Matcher matcher = ERROR_LINE.matcher(output);
+        return matcher.find() ? matcher.group().trim() : null;
+    }
+
+    public synchronized boolean allowRequest() {
+        if (state == State.CLOSED) return true;
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN && !trialInFlight) {
+            trialInFlight = true;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized void onResult(CLIExecutor.CommandResult result) {
+        trialInFlight = false;
+        String failure = classify(result);
+        if (failure == null) {
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            cause = null;
+            return;
+        }
+        consecutiveFailures++;
+        cause = failure + ": " + firstLine(result.getOutput());
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            trip();
+        }
+    }
+
+    /**
+     * Opens the circuit straight away, e.g. when the suite preflight probe fails.
+     */
+    public synchronized void forceOpen(String reason) {
+        cause = reason;
+        trip();
+    }
+
+    private void trip() {
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+    }
+
+    public CLIExecutor.CommandResult rejection() {
+        return new CLIExecutor.CommandResult(-1, "Circuit open for " + name + " (" + getCause() + ")", false);
+    }
+
+    private static String firstLine(String output) {
+        int newline = output.indexOf('\n');
+        return newline >= 0 ? output.substring(0, newline) : output;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized String getCause() {
+        return cause;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "CircuitBreaker{" +
+                "name='" + name + '\'' +
+                ", state=" + state +
+                ", consecutiveFailures=" + consecutiveFailures +
+                (cause != null ? ", cause='" + cause + '\'' : "") +
+                '}';
+    }
+}
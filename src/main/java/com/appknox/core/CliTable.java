@@ -0,0 +1,372 @@
+package com.appknox.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Tabular CLI output (projects, files, analyses, cicheck, ...) parsed into rows in one pass over
+ * the characters, without regex splitting or per-line string copies of the whole output.
+ *
+ * Three layouts are recognised from the header line: pipe or box-drawing delimited cells,
+ * columns aligned with runs of two or more spaces, and single-space separated columns where the
+ * last column takes the rest of the line. Aligned rows are cut at the header's column positions,
+ * so an empty cell keeps the cells after it in their own columns. Border lines and blank lines are skipped, and so is
+ * anything before the header (banners such as "Found 3 vulnerabilities").
+ */
+public final class CliTable {
+    private enum Layout { DELIMITED, ALIGNED, SPACED }
+
+    private final List<String> columns;
+    private final List<Row> rows;
+
+    private CliTable(List<String> columns, List<Row> rows) {
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    /**
+     * Header is the first line whose cells contain no lowercase letters (the CLI prints headers in
+     * upper case).
+     */
+    public static CliTable parse(CharSequence output) {
+        return parse(output, null);
+    }
+
+    /**
+     * Header is the first line with a cell equal to {@code requiredColumn}, ignoring case, that is
+     * not all lower case (so the "risk" in a banner like "Found 3 vulnerabilities with risk &gt;=
+     * low" is not taken for a RISK column). Without such a line the table is empty.
+     */
+    public static CliTable parse(CharSequence output, String requiredColumn) {
+        List<String> columns = null;
+        Layout layout = null;
+        int[] columnStarts = null;
+        List<Row> rows = new ArrayList<>();
+
+        int length = output.length();
+        int start = 0;
+        while (start < length) {
+            int end = start;
+            while (end < length && output.charAt(end) != '\n') end++;
+            int next = end + 1;
+            if (end > start && output.charAt(end - 1) == '\r') end--;
+
+            if (!isBlankOrBorder(output, start, end)) {
+                if (columns == null) {
+                    Layout candidate = layoutOf(output, start, end);
+                    List<String> cells = cells(output, start, end, candidate, Integer.MAX_VALUE);
+                    if (requiredColumn != null ? hasColumn(cells, requiredColumn) : isHeader(cells)) {
+                        columns = cells;
+                        layout = candidate;
+                        if (layout == Layout.ALIGNED) columnStarts = columnStarts(output, start, end);
+                    }
+                } else {
+                    List<String> cells = layout == Layout.ALIGNED
+                            ? alignedCells(output, start, end, columnStarts)
+                            : cells(output, start, end, layout, columns.size());
+                    rows.add(new Row(columns, cells, output.subSequence(start, end).toString().trim()));
+                }
+            }
+            start = next;
+        }
+        return new CliTable(columns != null ? Collections.unmodifiableList(columns) : List.of(), rows);
+    }
+
+    /**
+     * Last line of the output that is purely numeric, e.g. the file ID printed by "appknox upload".
+     */
+    public static String lastNumericLine(CharSequence output) {
+        String last = null;
+        int length = output.length();
+        int start = 0;
+        while (start < length) {
+            int end = start;
+            while (end < length && output.charAt(end) != '\n') end++;
+            int next = end + 1;
+            int from = start;
+            int to = end;
+            while (from < to && Character.isWhitespace(output.charAt(from))) from++;
+            while (to > from && Character.isWhitespace(output.charAt(to - 1))) to--;
+            if (to > from && allDigits(output, from, to)) {
+                last = output.subSequence(from, to).toString();
+            }
+            start = next;
+        }
+        return last;
+    }
+
+    /**
+     * ID printed by a create command such as "appknox reports create": the number after an "ID"
+     * label ("Report ID: 77", "id=77"), else the last purely numeric line, else the first whole
+     * number in the output. Null when the output holds no number. Digits elsewhere on the line
+     * (timestamps, versions, counts) are never concatenated into the ID.
+     */
+    public static String idField(CharSequence output) {
+        int length = output.length();
+        for (int i = 0; i + 1 < length; i++) {
+            if (Character.toUpperCase(output.charAt(i)) != 'I'
+                    || Character.toUpperCase(output.charAt(i + 1)) != 'D') continue;
+            if (i > 0 && Character.isLetterOrDigit(output.charAt(i - 1))) continue;
+            int j = i + 2;
+            while (j < length && (output.charAt(j) == ' ' || output.charAt(j) == '\t')) j++;
+            if (j < length && (output.charAt(j) == ':' || output.charAt(j) == '=')) j++;
+            while (j < length && (output.charAt(j) == ' ' || output.charAt(j) == '\t')) j++;
+            if (j == i + 2) continue;
+            int to = j;
+            while (to < length && output.charAt(to) >= '0' && output.charAt(to) <= '9') to++;
+            if (to > j && (to == length || !Character.isLetterOrDigit(output.charAt(to)))) {
+                return output.subSequence(j, to).toString();
+            }
+        }
+
+        String line = lastNumericLine(output);
+        if (line != null) return line;
+
+        for (int i = 0; i < length; i++) {
+            char c = output.charAt(i);
+            if (c < '0' || c > '9' || (i > 0 && Character.isLetterOrDigit(output.charAt(i - 1)))) continue;
+            int to = i;
+            while (to < length && output.charAt(to) >= '0' && output.charAt(to) <= '9') to++;
+            if (to == length || !Character.isLetterOrDigit(output.charAt(to))) {
+                return output.subSequence(i, to).toString();
+            }
+            i = to;
+        }
+        return null;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public List<Row> getRows() {
+        return rows;
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    public boolean isEmpty() {
+        return rows.isEmpty();
+    }
+
+    public int columnIndex(String name) {
+        return indexOfIgnoreCase(columns, name);
+    }
+
+    /**
+     * Values of one column, skipping rows that do not have it.
+     */
+    public List<String> column(String name) {
+        int index = columnIndex(name);
+        List<String> values = new ArrayList<>();
+        if (index < 0) return values;
+        for (Row row : rows) {
+            String value = row.get(index);
+            if (value != null) values.add(value);
+        }
+        return values;
+    }
+
+    private static boolean isBlankOrBorder(CharSequence line, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            boolean border = Character.isWhitespace(c) || c == '+' || c == '-' || c == '=' || c == '|'
+                    || (c >= '\u2500' && c <= '\u257F');
+            if (!border) return false;
+        }
+        return true;
+    }
+
+    private static Layout layoutOf(CharSequence line, int start, int end) {
+        while (start < end && Character.isWhitespace(line.charAt(start))) start++;
+        boolean gap = false;
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (c == '|' || c == '\u2502') return Layout.DELIMITED;
+            if (i > start && Character.isWhitespace(c) && Character.isWhitespace(line.charAt(i - 1))) {
+                gap = true;
+            }
+        }
+        return gap ? Layout.ALIGNED : Layout.SPACED;
+    }
+
+    private static List<String> cells(CharSequence line, int start, int end, Layout layout, int maxCells) {
+        List<String> cells = new ArrayList<>();
+        int i = start;
+        while (i < end && Character.isWhitespace(line.charAt(i))) i++;
+
+        if (layout == Layout.DELIMITED) {
+            if (i < end && (line.charAt(i) == '|' || line.charAt(i) == '\u2502')) i++;
+            int cellStart = i;
+            for (; i <= end; i++) {
+                if (i == end || line.charAt(i) == '|' || line.charAt(i) == '\u2502') {
+                    String cell = trimmed(line, cellStart, i);
+                    // a trailing border leaves an empty cell behind it
+                    if (i < end || !cell.isEmpty()) cells.add(cell);
+                    cellStart = i + 1;
+                }
+            }
+            return cells;
+        }
+
+        int cellStart = i;
+        while (i < end) {
+            char c = line.charAt(i);
+            boolean separator = layout == Layout.ALIGNED
+                    ? Character.isWhitespace(c) && i + 1 < end && Character.isWhitespace(line.charAt(i + 1))
+                    : Character.isWhitespace(c);
+            if (separator && cells.size() < maxCells - 1) {
+                cells.add(trimmed(line, cellStart, i));
+                while (i < end && Character.isWhitespace(line.charAt(i))) i++;
+                cellStart = i;
+            } else {
+                i++;
+            }
+        }
+        if (cellStart < end) cells.add(trimmed(line, cellStart, end));
+        return cells;
+    }
+
+    /**
+     * Offset from the start of the line of each cell in an aligned header.
+     */
+    private static int[] columnStarts(CharSequence line, int start, int end) {
+        List<Integer> starts = new ArrayList<>();
+        int i = start;
+        while (i < end && Character.isWhitespace(line.charAt(i))) i++;
+        starts.add(i - start);
+        while (i < end) {
+            if (Character.isWhitespace(line.charAt(i)) && i + 1 < end && Character.isWhitespace(line.charAt(i + 1))) {
+                while (i < end && Character.isWhitespace(line.charAt(i))) i++;
+                if (i < end) starts.add(i - start);
+            } else {
+                i++;
+            }
+        }
+        int[] offsets = new int[starts.size()];
+        for (int k = 0; k < offsets.length; k++) offsets[k] = starts.get(k);
+        return offsets;
+    }
+
+    /**
+     * Cells of an aligned row cut at the header's column offsets. A value that overflows to the
+     * left of its column (e.g. a right-aligned number wider than its header) is cut at the start
+     * of that value rather than through it.
+     */
+    private static List<String> alignedCells(CharSequence line, int start, int end, int[] columnStarts) {
+        List<String> cells = new ArrayList<>();
+        int cellStart = start;
+        for (int k = 1; k <= columnStarts.length && cellStart < end; k++) {
+            int cut = k < columnStarts.length ? Math.min(start + columnStarts[k], end) : end;
+            while (cut > cellStart && cut < end && !Character.isWhitespace(line.charAt(cut))
+                    && !Character.isWhitespace(line.charAt(cut - 1))) {
+                cut--;
+            }
+            cells.add(trimmed(line, cellStart, cut));
+            cellStart = cut;
+        }
+        return cells;
+    }
+
+    private static String trimmed(CharSequence line, int from, int to) {
+        while (from < to && Character.isWhitespace(line.charAt(from))) from++;
+        while (to > from && Character.isWhitespace(line.charAt(to - 1))) to--;
+        return line.subSequence(from, to).toString();
+    }
+
+    private static boolean isHeader(List<String> cells) {
+        if (cells.size() < 2) return false;
+        for (String cell : cells) {
+            for (int i = 0; i < cell.length(); i++) {
+                if (Character.isLowerCase(cell.charAt(i))) return false;
+            }
+            if (!cell.isEmpty() && allDigits(cell, 0, cell.length())) return false;
+        }
+        return true;
+    }
+
+    private static boolean hasColumn(List<String> cells, String name) {
+        for (String cell : cells) {
+            if (cell.equalsIgnoreCase(name) && !cell.equals(cell.toLowerCase(Locale.ROOT))) return true;
+        }
+        return false;
+    }
+
+    private static boolean allDigits(CharSequence value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+
+    private static int indexOfIgnoreCase(List<String> cells, String name) {
+        for (int i = 0; i < cells.size(); i++) {
+            if (cells.get(i).equalsIgnoreCase(name)) return i;
+        }
+        return -1;
+    }
+
+    public static class Row {
+        private final List<String> columns;
+        private final List<String> cells;
+        private final String line;
+
+        Row(List<String> columns, List<String> cells, String line) {
+            this.columns = columns;
+            this.cells = cells;
+            this.line = line;
+        }
+
+        public List<String> getCells() {
+            return cells;
+        }
+
+        /**
+         * The row as printed, trimmed.
+         */
+        public String getLine() {
+            return line;
+        }
+
+        public String get(int index) {
+            return index >= 0 && index < cells.size() ? cells.get(index) : null;
+        }
+
+        public String get(String column) {
+            return get(indexOfIgnoreCase(columns, column));
+        }
+
+        /**
+         * Numeric value of the column, or null when it is missing or not a whole number.
+         */
+        public Long getLong(String column) {
+            String value = get(column);
+            if (value == null || value.isEmpty() || !allDigits(value, 0, value.length())) return null;
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        public Double getDouble(String column) {
+            String value = get(column);
+            if (value == null || value.isEmpty()) return null;
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return line;
+        }
+    }
+}
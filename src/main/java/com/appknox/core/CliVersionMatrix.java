@@ -0,0 +1,234 @@
+package com.appknox.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs the same CLI commands against several appknox binaries side by side and diffs them against
+ * the first (baseline) binary: exit codes, normalized output and latency distribution.
+ *
+ * Output is normalized before comparing so timestamps, durations, UUIDs, ANSI colours and the
+ * CLI's own version string do not count as differences. A candidate whose p50 latency exceeds the
+ * baseline's by more than {@code latencyRegressionFactor}, or whose p95 exceeds it by more than
+ * {@code tailRegressionFactor} (and at least 50 ms either way), is reported as a latency regression.
+ */
+public class CliVersionMatrix {
+    // latency differences below this are process-spawn jitter, not a regression
+    private static final long MIN_REGRESSION_MILLIS = 50;
+
+    private final CLIExecutor executor;
+    private final Map<String, String> binaries;
+    private final Map<String, String> env;
+    private final int repetitions;
+    private final int parallelism;
+    private final double latencyRegressionFactor;
+    private final double tailRegressionFactor;
+
+    /**
+     * @param binaries label -&gt; binary path, the first entry is the baseline
+     */
+    public CliVersionMatrix(CLIExecutor executor, Map<String, String> binaries, Map<String, String> env,
+                            int repetitions, int parallelism, double latencyRegressionFactor,
+                            double tailRegressionFactor) {
+        this.executor = executor;
+        this.binaries = binaries;
+        this.env = env;
+        this.repetitions = repetitions;
+        this.parallelism = parallelism;
+        this.latencyRegressionFactor = latencyRegressionFactor;
+        this.tailRegressionFactor = tailRegressionFactor;
+    }
+
+    public static String normalize(String output) {
+        return output
+                .replaceAll("\u001B\\[[0-9;]*[A-Za-z]", "")
+                .replaceAll("\\d{4}-\\d{2}-\\d{2}[T ]\\d{2}:\\d{2}:\\d{2}(\\.\\d+)?(Z|[+-]\\d{2}:?\\d{2})?", "<timestamp>")
+                .replaceAll("(?i)[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}", "<uuid>")
+                .replaceAll("\\bv?\\d+\\.\\d+\\.\\d+([-+][\\w.]+)?\\b", "<version>")
+                .replaceAll("\\b\\d+(\\.\\d+)?\\s?(ms|s)\\b", "<duration>")
+                .replaceAll("[ \\t]+(?=\\R|$)", "")
+                .trim();
+    }
+
+    /**
+     * Runs every command {@code repetitions} times on every binary, at most {@code parallelism}
+     * processes at once, and returns one comparison per command in input order.
+     *
+     * @param commands CLI arguments without the binary, e.g. ["analyses", "539"]
+     */
+    public List<CommandComparison> compare(List<List<String>> commands) throws InterruptedException {
+        Semaphore permits = new Semaphore(parallelism);
+        Map<List<String>, Map<String, List<Future<CLIExecutor.CommandResult>>>> futures = new LinkedHashMap<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (List<String> args : commands) {
+                Map<String, List<Future<CLIExecutor.CommandResult>>> perBinary = new LinkedHashMap<>();
+                for (Map.Entry<String, String> binary : binaries.entrySet()) {
+                    List<String> command = new ArrayList<>();
+                    command.add(binary.getValue());
+                    command.addAll(args);
+                    List<Future<CLIExecutor.CommandResult>> runs = new ArrayList<>();
+                    for (int i = 0; i < repetitions; i++) {
+                        runs.add(pool.submit(() -> {
+                            permits.acquire();
+                            try {
+                                return executor.executeCommand(command, env);
+                            } finally {
+                                permits.release();
+                            }
+                        }));
+                    }
+                    perBinary.put(binary.getKey(), runs);
+                }
+                futures.put(args, perBinary);
+            }
+
+            List<CommandComparison> comparisons = new ArrayList<>();
+            for (Map.Entry<List<String>, Map<String, List<Future<CLIExecutor.CommandResult>>>> entry : futures.entrySet()) {
+                Map<String, BinaryRun> runs = new LinkedHashMap<>();
+                for (Map.Entry<String, List<Future<CLIExecutor.CommandResult>>> binary : entry.getValue().entrySet()) {
+                    List<CLIExecutor.CommandResult> results = new ArrayList<>();
+                    for (Future<CLIExecutor.CommandResult> future : binary.getValue()) {
+                        try {
+                            results.add(future.get());
+                        } catch (ExecutionException e) {
+                            results.add(new CLIExecutor.CommandResult(-1, "Exception: " + e.getCause().getMessage(), false));
+                        }
+                    }
+                    runs.put(binary.getKey(), new BinaryRun(binary.getKey(), results));
+                }
+                comparisons.add(new CommandComparison(entry.getKey(), runs, latencyRegressionFactor, tailRegressionFactor));
+            }
+            return comparisons;
+        }
+    }
+
+    public static class BinaryRun {
+        private final String label;
+        private final List<CLIExecutor.CommandResult> results;
+        private final long[] sortedMillis;
+
+        BinaryRun(String label, List<CLIExecutor.CommandResult> results) {
+            this.label = label;
+            this.results = results;
+            this.sortedMillis = results.stream().mapToLong(CLIExecutor.CommandResult::getDurationMillis).toArray();
+            Arrays.sort(sortedMillis);
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public List<CLIExecutor.CommandResult> getResults() {
+            return results;
+        }
+
+        /**
+         * Exit code of the first run; {@link #isStable()} says whether every run agreed.
+         */
+        public int getExitCode() {
+            return results.get(0).getExitCode();
+        }
+
+        public String getNormalizedOutput() {
+            return normalize(results.get(0).getOutput());
+        }
+
+        public boolean isStable() {
+            for (CLIExecutor.CommandResult result : results) {
+                if (result.getExitCode() != getExitCode() || !normalize(result.getOutput()).equals(getNormalizedOutput())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public long percentileMillis(double quantile) {
+            if (sortedMillis.length == 0) return -1;
+            int index = (int) Math.ceil(quantile * sortedMillis.length) - 1;
+            return sortedMillis[Math.max(0, Math.min(sortedMillis.length - 1, index))];
+        }
+
+        @Override
+        public String toString() {
+            return "BinaryRun{" +
+                    "label='" + label + '\'' +
+                    ", exitCode=" + getExitCode() +
+                    ", stable=" + isStable() +
+                    ", p50=" + percentileMillis(0.5) +
+                    ", p95=" + percentileMillis(0.95) +
+                    ", max=" + percentileMillis(1.0) +
+                    '}';
+        }
+    }
+
+    public static class CommandComparison {
+        private final List<String> args;
+        private final Map<String, BinaryRun> runs;
+        private final List<String> differences = new ArrayList<>();
+
+        CommandComparison(List<String> args, Map<String, BinaryRun> runs, double latencyRegressionFactor,
+                          double tailRegressionFactor) {
+            this.args = args;
+            this.runs = runs;
+
+            BinaryRun baseline = runs.values().iterator().next();
+            for (BinaryRun candidate : runs.values()) {
+                if (!candidate.isStable()) {
+                    differences.add(candidate.getLabel() + ": results differ between repetitions");
+                }
+                if (candidate == baseline) continue;
+                if (candidate.getExitCode() != baseline.getExitCode()) {
+                    differences.add(candidate.getLabel() + ": exit code " + candidate.getExitCode()
+                            + " vs " + baseline.getExitCode() + " on " + baseline.getLabel());
+                }
+                if (!Objects.equals(candidate.getNormalizedOutput(), baseline.getNormalizedOutput())) {
+                    differences.add(candidate.getLabel() + ": output differs from " + baseline.getLabel());
+                }
+                compareLatency(baseline, candidate, "p50", 0.5, latencyRegressionFactor);
+                compareLatency(baseline, candidate, "p95", 0.95, tailRegressionFactor);
+            }
+        }
+
+        private void compareLatency(BinaryRun baseline, BinaryRun candidate, String name, double quantile, double factor) {
+            long base = baseline.percentileMillis(quantile);
+            long millis = candidate.percentileMillis(quantile);
+            if (base > 0 && millis > base * factor && millis - base >= MIN_REGRESSION_MILLIS) {
+                differences.add(candidate.getLabel() + ": " + name + " " + millis + " ms vs " + base + " ms on "
+                        + baseline.getLabel());
+            }
+        }
+
+        public List<String> getArgs() {
+            return args;
+        }
+
+        public Map<String, BinaryRun> getRuns() {
+            return runs;
+        }
+
+        public List<String> getDifferences() {
+            return differences;
+        }
+
+        public boolean isConsistent() {
+            return differences.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder(String.join(" ", args)).append('\n');
+            runs.values().forEach(run -> out.append("  ").append(run).append('\n'));
+            differences.forEach(difference -> out.append("  DIFF ").append(difference).append('\n'));
+            return out.toString();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.appknox.core;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One CLI invocation (argv + environment) that can be shipped to another JVM.
+ */
+public class CommandSpec {
+    private final String id;
+    private final List<String> command;
+    private final Map<String, String> env;
+
+    public CommandSpec(String id, List<String> command, Map<String, String> env) {
+        this.id = id;
+        this.command = command;
+        this.env = env;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public List<String> getCommand() {
+        return command;
+    }
+
+    public Map<String, String> getEnv() {
+        return env;
+    }
+
+    // ---------- Wire format: length-prefixed UTF-8, no size limit unlike writeUTF ----------
+
+    void writeTo(DataOutputStream out) throws IOException {
+        writeString(out, id);
+        out.writeInt(command.size());
+        for (String arg : command) {
+            writeString(out, arg);
+        }
+        out.writeInt(env.size());
+        for (Map.Entry<String, String> entry : env.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    static CommandSpec readFrom(DataInputStream in) throws IOException {
+        String id = readString(in);
+        int args = in.readInt();
+        List<String> command = new ArrayList<>(args);
+        for (int i = 0; i < args; i++) {
+            command.add(readString(in));
+        }
+        int vars = in.readInt();
+        Map<String, String> env = new LinkedHashMap<>();
+        for (int i = 0; i < vars; i++) {
+            env.put(readString(in), readString(in));
+        }
+        return new CommandSpec(id, command, env);
+    }
+
+    static void writeResult(DataOutputStream out, String id, CLIExecutor.CommandResult result) throws IOException {
+        writeString(out, id);
+        out.writeInt(result.getExitCode());
+        out.writeBoolean(result.isTimeout());
+        out.writeLong(result.getDurationMillis());
+        writeString(out, result.getOutput());
+    }
+
+    static CLIExecutor.CommandResult readResult(DataInputStream in) throws IOException {
+        int exitCode = in.readInt();
+        boolean timeout = in.readBoolean();
+        long durationMillis = in.readLong();
+        String output = readString(in);
+        return new CLIExecutor.CommandResult(exitCode, output, timeout, null, durationMillis);
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "CommandSpec{" +
+                "id='" + id + '\'' +
+                ", command=" + command +
+                '}';
+    }
+}
@@ -0,0 +1,197 @@
+package com.appknox.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validates a summary CSV report ("appknox reports download summary-csv") in a single streaming
+ * pass: header schema, field count of every record, Severity / Risk Override / CVSS Score domains
+ * and that every row belongs to the same File ID.
+ *
+ * Records are read with an RFC 4180 state machine (quoted fields may span lines and contain
+ * doubled quotes), holding only the current record in memory. Fields longer than
+ * {@link #MAX_FIELD_CHARS} are reported instead of being buffered. What is kept across records is
+ * the {@link ReportSummary}: counts per severity and per test case, bounded by the size of the
+ * test catalogue.
+ */
+public class CsvReportValidator {
+    public static final int MAX_FIELD_CHARS = 1 << 20;
+
+    private final List<String> requiredColumns;
+
+    public CsvReportValidator() {
+        this(ReportSummary.REQUIRED_COLUMNS);
+    }
+
+    public CsvReportValidator(List<String> requiredColumns) {
+        this.requiredColumns = requiredColumns;
+    }
+
+    public ReportSummary validate(Path csv) throws IOException {
+        return validate(csv, null);
+    }
+
+    /**
+     * @param expectedFileId File ID every row must carry, or null to only require that all rows
+     *                       carry the same one
+     */
+    public ReportSummary validate(Path csv, String expectedFileId) throws IOException {
+        try (Reader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            return validate(reader, expectedFileId);
+        }
+    }
+
+    public ReportSummary validate(Reader source, String expectedFileId) throws IOException {
+        return validate(source, expectedFileId, null);
+    }
+
+    /**
+     * Also hands every data row that has the header's field count to {@code listener}.
+     */
+    ReportSummary validateRows(Path csv, RowListener listener) throws IOException {
+        try (Reader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            return validate(reader, null, listener);
+        }
+    }
+
+    ReportSummary validate(Reader source, String expectedFileId, RowListener listener) throws IOException {
+        ReportSummary summary = new ReportSummary("csv", expectedFileId);
+        RecordReader reader = new RecordReader(source instanceof BufferedReader ? source : new BufferedReader(source));
+        List<String> record = new ArrayList<>();
+
+        if (!reader.next(record, summary)) {
+            summary.error(1, "Report is empty");
+            return summary;
+        }
+        if (!record.isEmpty() && record.get(0).startsWith("\uFEFF")) {
+            record.set(0, record.get(0).substring(1));
+        }
+        summary.header(record, requiredColumns);
+        int fields = record.size();
+
+        while (true) {
+            long line = reader.getLine();
+            if (!reader.next(record, summary)) break;
+            if (record.size() == 1 && record.get(0).isEmpty()) continue;
+
+            if (record.size() != fields) {
+                summary.error(line, "Expected " + fields + " fields but found " + record.size());
+                continue;
+            }
+            summary.row(line, record);
+            if (listener != null) listener.row(summary, line, record);
+        }
+        return summary;
+    }
+
+    /**
+     * Receives the rows of a report as it is validated; {@code record} is reused for the next row.
+     */
+    interface RowListener {
+        void row(ReportSummary summary, long line, List<String> record);
+    }
+
+    /**
+     * RFC 4180 record reader over a character stream; tracks the physical line for messages.
+     */
+    private static final class RecordReader {
+        private final Reader in;
+        private final StringBuilder field = new StringBuilder();
+        private long line = 1;
+        private int pushback = -2;
+
+        RecordReader(Reader in) {
+            this.in = in;
+        }
+
+        long getLine() {
+            return line;
+        }
+
+        boolean next(List<String> record, ReportSummary result) throws IOException {
+            record.clear();
+            field.setLength(0);
+            long start = line;
+            boolean quoted = false;
+            boolean inQuotes = false;
+            boolean truncated = false;
+            int c = read();
+            if (c < 0) return false;
+
+            while (true) {
+                if (inQuotes) {
+                    if (c < 0) {
+                        result.error(start, "Quoted field is not terminated before end of file");
+                        record.add(field.toString());
+                        return true;
+                    }
+                    if (c == '"') {
+                        int next = read();
+                        if (next == '"') {
+                            truncated |= append('"');
+                        } else {
+                            inQuotes = false;
+                            c = next;
+                            continue;
+                        }
+                    } else {
+                        if (c == '\n') line++;
+                        truncated |= append((char) c);
+                    }
+                } else if (c == ',' || c == '\n' || c == '\r' || c < 0) {
+                    if (truncated) {
+                        result.error(start, "Field " + (record.size() + 1) + " exceeds " + MAX_FIELD_CHARS + " characters");
+                    }
+                    record.add(field.toString());
+                    field.setLength(0);
+                    quoted = false;
+                    truncated = false;
+                    if (c == '\r') {
+                        int next = read();
+                        if (next != '\n') unread(next);
+                        c = '\n';
+                    }
+                    if (c == '\n') {
+                        line++;
+                        return true;
+                    }
+                    if (c < 0) return true;
+                } else if (c == '"' && field.length() == 0 && !quoted) {
+                    quoted = true;
+                    inQuotes = true;
+                } else {
+                    if (c == '"' || quoted) {
+                        result.error(line, "Unexpected character '" + (char) c + "' in field " + (record.size() + 1));
+                    }
+                    truncated |= append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private boolean append(char c) {
+            if (field.length() >= MAX_FIELD_CHARS) return true;
+            field.append(c);
+            return false;
+        }
+
+        private int read() throws IOException {
+            if (pushback != -2) {
+                int c = pushback;
+                pushback = -2;
+                return c;
+            }
+            return in.read();
+        }
+
+        private void unread(int c) {
+            pushback = c;
+        }
+    }
+}
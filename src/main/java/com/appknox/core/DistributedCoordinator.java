@@ -0,0 +1,342 @@
+package com.appknox.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Distributes {@link CommandSpec} jobs over sockets to {@link DistributedWorker} JVMs.
+ *
+ * Every worker connection (one per worker slot) pulls the next job as soon as it is free, so fast
+ * workers naturally take more. A job a worker does not answer within {@code jobTimeout} is
+ * cancelled there first, and the slot then takes the next job; a worker that does not confirm the
+ * cancel within {@link #CANCEL_GRACE_MILLIS} is dropped like a broken connection, and workers kill
+ * their running jobs when their connection closes. Either way the job goes back on the queue for
+ * another worker, up to {@code maxAttempts} times. A worker that hangs without noticing its
+ * connection close may still finish the job, so it can run twice; only submit jobs that are safe
+ * to repeat, like the read-only listings. Workers may live on other hosts; they only need to reach the
+ * coordinator's port. Environments, including access tokens, are sent in clear text, so bind to
+ * a trusted network.
+ */
+public class DistributedCoordinator implements AutoCloseable {
+    private static final long POLL_MILLIS = 200;
+    static final int CANCEL_GRACE_MILLIS = 10_000;
+
+    private final ServerSocket serverSocket;
+    private final Duration jobTimeout;
+    private final int maxAttempts;
+    private final BlockingQueue<PendingJob> queue = new LinkedBlockingQueue<>();
+    private final Map<String, WorkerStats> workers = new ConcurrentHashMap<>();
+    private final List<Socket> connections = new ArrayList<>();
+    private final List<Process> localWorkers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    public DistributedCoordinator(String bindAddress, int port, Duration jobTimeout, int maxAttempts) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getByName(bindAddress));
+        this.jobTimeout = jobTimeout;
+        this.maxAttempts = maxAttempts;
+        Thread acceptThread = new Thread(this::acceptLoop, "coordinator-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Starts worker JVMs on this host with the current classpath, for local scale-out and tests.
+     */
+    public List<Process> spawnLocalWorkers(int count, int slotsPerWorker, int commandTimeoutSeconds) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> spawned = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ProcessBuilder pb = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    DistributedWorker.class.getName(), "127.0.0.1", String.valueOf(getPort()),
+                    String.valueOf(slotsPerWorker), String.valueOf(commandTimeoutSeconds));
+            pb.redirectErrorStream(true);
+            pb.redirectOutput(ProcessBuilder.Redirect.appendTo(new File(System.getProperty("java.io.tmpdir"),
+                    "appknox-worker-" + getPort() + "-" + i + ".log")));
+            spawned.add(pb.start());
+        }
+        synchronized (localWorkers) {
+            localWorkers.addAll(spawned);
+        }
+        return spawned;
+    }
+
+    public boolean awaitWorkers(int slots, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (aliveSlots() < slots) {
+            if (System.nanoTime() > deadline) return false;
+            Thread.sleep(50);
+        }
+        return true;
+    }
+
+    public int aliveSlots() {
+        return (int) workers.values().stream().filter(WorkerStats::isAlive).count();
+    }
+
+    /**
+     * Runs all jobs across the connected workers and returns results keyed by job ID in input order.
+     */
+    public Map<String, JobOutcome> run(List<CommandSpec> jobs, Duration deadline) throws InterruptedException {
+        Map<String, JobOutcome> outcomes = new ConcurrentHashMap<>();
+        CountDownLatch remaining = new CountDownLatch(jobs.size());
+        for (CommandSpec job : jobs) {
+            queue.put(new PendingJob(job, outcomes, remaining));
+        }
+
+        if (!remaining.await(deadline.toMillis(), TimeUnit.MILLISECONDS)) {
+            queue.removeIf(pending -> pending.outcomes == outcomes);
+        }
+
+        Map<String, JobOutcome> ordered = new LinkedHashMap<>();
+        for (CommandSpec job : jobs) {
+            ordered.put(job.getId(), outcomes.getOrDefault(job.getId(), new JobOutcome(job.getId(), null, 0,
+                    new CLIExecutor.CommandResult(-1, "Job not completed before deadline", true))));
+        }
+        return ordered;
+    }
+
+    public List<WorkerStats> getWorkerStats() {
+        return new ArrayList<>(workers.values());
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                synchronized (connections) {
+                    connections.add(socket);
+                }
+                Thread.ofVirtual().start(() -> serve(socket));
+            } catch (IOException e) {
+                if (running) System.err.println("Coordinator accept failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        WorkerStats stats = null;
+        PendingJob inFlight = null;
+        try (socket) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            String name = CommandSpec.readString(in);
+            stats = new WorkerStats(name);
+            workers.put(name, stats);
+            socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, jobTimeout.toMillis()));
+
+            while (running) {
+                inFlight = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (inFlight == null) continue;
+
+                inFlight.attempts++;
+                long start = System.nanoTime();
+                out.writeByte(DistributedWorker.JOB);
+                inFlight.spec.writeTo(out);
+                out.flush();
+
+                String id;
+                CLIExecutor.CommandResult result;
+                boolean cancelled = false;
+                try {
+                    id = CommandSpec.readString(in);
+                    result = CommandSpec.readResult(in);
+                } catch (SocketTimeoutException e) {
+                    // stop it on this worker before another one takes it, so it does not run twice at once
+                    out.writeByte(DistributedWorker.CANCEL);
+                    CommandSpec.writeString(out, inFlight.spec.getId());
+                    out.flush();
+                    socket.setSoTimeout(CANCEL_GRACE_MILLIS);
+                    id = CommandSpec.readString(in);
+                    result = CommandSpec.readResult(in);
+                    socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, jobTimeout.toMillis()));
+                    cancelled = true;
+                }
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                stats.record(millis, result.isSuccess());
+                PendingJob job = inFlight;
+                inFlight = null;
+                // a job that finished while being cancelled keeps its result
+                if (cancelled && !result.isSuccess()) {
+                    reassign(job, name, "a timeout");
+                } else {
+                    job.complete(new JobOutcome(id, name, job.attempts, result));
+                }
+            }
+            out.writeByte(DistributedWorker.QUIT);
+            out.flush();
+        } catch (IOException e) {
+            if (stats != null) stats.lost(e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (inFlight != null) reassign(inFlight, stats != null ? stats.getName() : "unknown worker", "a lost connection");
+        }
+    }
+
+    private void reassign(PendingJob job, String worker, String reason) {
+        if (job.attempts >= maxAttempts) {
+            job.complete(new JobOutcome(job.spec.getId(), worker, job.attempts,
+                    new CLIExecutor.CommandResult(-1, "Job failed on " + job.attempts + " workers, last: " + worker, false)));
+            return;
+        }
+        System.out.println("Reassigning " + job.spec.getId() + " after " + reason + " on " + worker);
+        queue.offer(job);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+        }
+        synchronized (connections) {
+            for (Socket socket : connections) {
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+        synchronized (localWorkers) {
+            localWorkers.forEach(Process::destroy);
+        }
+    }
+
+    private static class PendingJob {
+        private final CommandSpec spec;
+        private final Map<String, JobOutcome> outcomes;
+        private final CountDownLatch remaining;
+        private int attempts;
+
+        PendingJob(CommandSpec spec, Map<String, JobOutcome> outcomes, CountDownLatch remaining) {
+            this.spec = spec;
+            this.outcomes = outcomes;
+            this.remaining = remaining;
+        }
+
+        void complete(JobOutcome outcome) {
+            if (outcomes.putIfAbsent(spec.getId(), outcome) == null) {
+                remaining.countDown();
+            }
+        }
+    }
+
+    public static class JobOutcome {
+        private final String jobId;
+        private final String worker;
+        private final int attempts;
+        private final CLIExecutor.CommandResult result;
+
+        public JobOutcome(String jobId, String worker, int attempts, CLIExecutor.CommandResult result) {
+            this.jobId = jobId;
+            this.worker = worker;
+            this.attempts = attempts;
+            this.result = result;
+        }
+
+        public String getJobId() {
+            return jobId;
+        }
+
+        public String getWorker() {
+            return worker;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public CLIExecutor.CommandResult getResult() {
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "JobOutcome{" +
+                    "jobId='" + jobId + '\'' +
+                    ", worker='" + worker + '\'' +
+                    ", attempts=" + attempts +
+                    ", exitCode=" + result.getExitCode() +
+                    ", durationMillis=" + result.getDurationMillis() +
+                    '}';
+        }
+    }
+
+    public static class WorkerStats {
+        private final String name;
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicLong busyMillis = new AtomicLong();
+        private volatile String lostReason;
+
+        public WorkerStats(String name) {
+            this.name = name;
+        }
+
+        void record(long millis, boolean success) {
+            busyMillis.addAndGet(millis);
+            (success ? completed : failed).incrementAndGet();
+        }
+
+        void lost(String reason) {
+            lostReason = reason == null ? "connection lost" : reason;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getCompleted() {
+            return completed.get();
+        }
+
+        public int getFailed() {
+            return failed.get();
+        }
+
+        public long getBusyMillis() {
+            return busyMillis.get();
+        }
+
+        public boolean isAlive() {
+            return lostReason == null;
+        }
+
+        @Override
+        public String toString() {
+            return "WorkerStats{" +
+                    "name='" + name + '\'' +
+                    ", completed=" + completed +
+                    ", failed=" + failed +
+                    ", busyMillis=" + busyMillis +
+                    (lostReason != null ? ", lost='" + lostReason + '\'' : "") +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.appknox.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Worker JVM for {@link DistributedCoordinator}: opens one connection per slot to the coordinator
+ * and runs every job it receives on its own {@link CLIExecutor}. A job is killed when the
+ * coordinator cancels it or the connection closes.
+ *
+ * Usage: {@code java -cp ... com.appknox.core.DistributedWorker <host> <port> [slots] [timeoutSeconds]}
+ */
+public class DistributedWorker {
+    static final byte JOB = 'J';
+    static final byte QUIT = 'Q';
+    static final byte CANCEL = 'C';
+
+    private final String host;
+    private final int port;
+    private final CLIExecutor executor;
+
+    public DistributedWorker(String host, int port, CLIExecutor executor) {
+        this.host = host;
+        this.port = port;
+        this.executor = executor;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: DistributedWorker <host> <port> [slots] [timeoutSeconds]");
+            System.exit(2);
+        }
+        int slots = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        int timeoutSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 60;
+
+        DistributedWorker worker = new DistributedWorker(args[0], Integer.parseInt(args[1]), new CLIExecutor(timeoutSeconds));
+        List<Thread> threads = new ArrayList<>();
+        for (int slot = 0; slot < slots; slot++) {
+            int id = slot;
+            threads.add(Thread.ofPlatform().name("worker-slot-" + slot).start(() -> worker.serve(id)));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    public void serve(int slot) {
+        String name = hostName() + ":" + ProcessHandle.current().pid() + "#" + slot;
+        Thread running = null;
+        try (Socket socket = connect()) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            CommandSpec.writeString(out, name);
+            out.flush();
+
+            // jobs run on their own thread so that this one keeps reading, to see a cancel
+            String runningId = null;
+            while (true) {
+                byte type = in.readByte();
+                if (type == QUIT) return;
+                if (type == CANCEL) {
+                    // interrupting the executor kills the process and answers "Command cancelled"
+                    String id = CommandSpec.readString(in);
+                    if (running != null && id.equals(runningId)) running.interrupt();
+                    continue;
+                }
+                if (type != JOB) throw new IOException("Unexpected frame type " + type);
+
+                CommandSpec spec = CommandSpec.readFrom(in);
+                runningId = spec.getId();
+                running = Thread.ofVirtual().start(() -> {
+                    CLIExecutor.CommandResult result = executor.executeCommand(spec.getCommand(), spec.getEnv());
+                    // a cancel leaves the interrupt set, which would close the socket on the write
+                    Thread.interrupted();
+                    try {
+                        CommandSpec.writeResult(out, spec.getId(), result);
+                        out.flush();
+                    } catch (IOException e) {
+                        System.err.println("Worker " + name + " could not send " + spec.getId() + ": " + e.getMessage());
+                    }
+                });
+            }
+        } catch (EOFException e) {
+            // coordinator went away
+        } catch (IOException e) {
+            System.err.println("Worker " + name + " stopped: " + e.getMessage());
+        } finally {
+            if (running != null) running.interrupt();
+        }
+    }
+
+    private Socket connect() throws IOException {
+        IOException last = null;
+        for (int attempt = 0; attempt < 20; attempt++) {
+            try {
+                return new Socket(host, port);
+            } catch (IOException e) {
+                last = e;
+                try {
+                    Thread.sleep(250);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        throw last != null ? last : new IOException("Interrupted while connecting");
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "localhost";
+        }
+    }
+}
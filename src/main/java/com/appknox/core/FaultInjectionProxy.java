@@ -0,0 +1,409 @@
+package com.appknox.core;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * Local HTTP proxy that sits between the CLI and its API host and injects faults per route.
+ *
+ * Point the CLI at {@link #getUrl()} through APPKNOX_API_HOST and the proxy forwards every request
+ * to the real upstream (plain or TLS), one request per connection. Routes are matched as
+ * "METHOD /path" against the scripted {@link FaultRule}s, first match wins. CONNECT tunnels
+ * (HTTPS_PROXY mode) are supported too and match as "CONNECT host:port"; there only TCP-level
+ * faults make sense since the payload is encrypted.
+ */
+public class FaultInjectionProxy implements AutoCloseable {
+    private static final int MAX_HEAD_BYTES = 64 * 1024;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final URI upstream;
+    private final List<FaultRule> rules = new CopyOnWriteArrayList<>();
+    private final List<Exchange> exchanges = new CopyOnWriteArrayList<>();
+
+    private ServerSocket serverSocket;
+    private Thread acceptThread;
+    private volatile boolean running;
+
+    public FaultInjectionProxy(String upstreamUrl) {
+        this.upstream = URI.create(upstreamUrl);
+    }
+
+    public FaultInjectionProxy start() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        running = true;
+        acceptThread = new Thread(this::acceptLoop, "fault-proxy-" + serverSocket.getLocalPort());
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        return this;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Value for APPKNOX_API_HOST that routes the CLI through this proxy.
+     */
+    public String getUrl() {
+        return "http://127.0.0.1:" + getPort() + "/";
+    }
+
+    public FaultRule addRule(FaultRule rule) {
+        rules.add(rule);
+        return rule;
+    }
+
+    public void clearRules() {
+        rules.clear();
+    }
+
+    public List<Exchange> getExchanges() {
+        return new ArrayList<>(exchanges);
+    }
+
+    public void clearExchanges() {
+        exchanges.clear();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            if (serverSocket != null) serverSocket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket client = serverSocket.accept();
+                Thread.ofVirtual().start(() -> handle(client));
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Fault proxy accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void handle(Socket client) {
+        long start = System.nanoTime();
+        String route = "?";
+        FaultRule rule = null;
+        long bytesToClient = 0;
+        String error = null;
+
+        try (client) {
+            InputStream clientIn = new BufferedInputStream(client.getInputStream());
+            OutputStream clientOut = client.getOutputStream();
+
+            String head = readHead(clientIn);
+            if (head == null) return;
+
+            String[] lines = head.split("\r\n");
+            String[] requestLine = lines[0].split(" ");
+            String method = requestLine[0];
+            String target = requestLine.length > 1 ? requestLine[1] : "/";
+            boolean tunnel = "CONNECT".equalsIgnoreCase(method);
+
+            route = method + " " + (tunnel ? target : pathOf(target));
+            rule = match(route);
+
+            if (rule != null && rule.latencyMillis > 0) {
+                Thread.sleep(rule.latencyMillis);
+            }
+            if (rule != null && rule.reset) {
+                abort(client);
+                return;
+            }
+
+            try (Socket server = tunnel ? openTunnel(target) : openUpstream()) {
+                if (tunnel) {
+                    clientOut.write("HTTP/1.1 200 Connection Established\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+                    clientOut.flush();
+                } else {
+                    OutputStream serverOut = server.getOutputStream();
+                    serverOut.write(rewriteHead(lines).getBytes(StandardCharsets.ISO_8859_1));
+                    serverOut.flush();
+                }
+
+                Thread upstreamPump = Thread.ofVirtual().start(() -> pump(clientIn, server));
+                bytesToClient = relayDownstream(server.getInputStream(), clientOut, rule);
+                if (rule != null && rule.truncateAfterBytes >= 0 && bytesToClient >= rule.truncateAfterBytes) {
+                    abort(client);
+                }
+                upstreamPump.interrupt();
+            }
+        } catch (Exception e) {
+            error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        } finally {
+            long durationMillis = (System.nanoTime() - start) / 1_000_000;
+            exchanges.add(new Exchange(route, rule != null ? rule.toString() : null, bytesToClient, durationMillis, error));
+        }
+    }
+
+    private FaultRule match(String route) {
+        for (FaultRule rule : rules) {
+            if (rule.routePattern.matcher(route).find() && rule.consume()) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static String readHead(InputStream in) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
+        int last4 = 0;
+        int b;
+        while ((b = in.read()) != -1) {
+            head.write(b);
+            last4 = (last4 << 8) | b;
+            if (last4 == 0x0D0A0D0A) {
+                return head.toString(StandardCharsets.ISO_8859_1);
+            }
+            if (head.size() > MAX_HEAD_BYTES) {
+                throw new IOException("Request head exceeds " + MAX_HEAD_BYTES + " bytes");
+            }
+        }
+        return null;
+    }
+
+    private static String pathOf(String target) {
+        if (target.startsWith("http://") || target.startsWith("https://")) {
+            String path = URI.create(target).getRawPath();
+            return path == null || path.isEmpty() ? "/" : path;
+        }
+        int query = target.indexOf('?');
+        return query >= 0 ? target.substring(0, query) : target;
+    }
+
+    private String rewriteHead(String[] lines) {
+        StringBuilder head = new StringBuilder();
+        String[] requestLine = lines[0].split(" ");
+        String target = requestLine.length > 1 ? requestLine[1] : "/";
+        if (target.startsWith("http://") || target.startsWith("https://")) {
+            URI uri = URI.create(target);
+            target = uri.getRawPath() + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
+        }
+        head.append(requestLine[0]).append(' ').append(target).append(' ')
+                .append(requestLine.length > 2 ? requestLine[2] : "HTTP/1.1").append("\r\n");
+
+        for (int i = 1; i < lines.length; i++) {
+            String line = lines[i];
+            String name = line.contains(":") ? line.substring(0, line.indexOf(':')).trim().toLowerCase() : "";
+            if (name.equals("host") || name.equals("connection") || name.equals("proxy-connection")
+                    || name.equals("keep-alive")) {
+                continue;
+            }
+            head.append(line).append("\r\n");
+        }
+        head.append("Host: ").append(upstreamAuthority()).append("\r\n");
+        // one exchange per connection keeps route matching and fault accounting exact
+        head.append("Connection: close\r\n\r\n");
+        return head.toString();
+    }
+
+    private String upstreamAuthority() {
+        return upstream.getPort() > 0 ? upstream.getHost() + ":" + upstream.getPort() : upstream.getHost();
+    }
+
+    private Socket openUpstream() throws IOException {
+        boolean tls = "https".equalsIgnoreCase(upstream.getScheme());
+        int port = upstream.getPort() > 0 ? upstream.getPort() : (tls ? 443 : 80);
+        if (tls) {
+            return SSLSocketFactory.getDefault().createSocket(upstream.getHost(), port);
+        }
+        return new Socket(upstream.getHost(), port);
+    }
+
+    private static Socket openTunnel(String authority) throws IOException {
+        int colon = authority.lastIndexOf(':');
+        String host = colon > 0 ? authority.substring(0, colon) : authority;
+        int port = colon > 0 ? Integer.parseInt(authority.substring(colon + 1)) : 443;
+        Socket socket = new Socket();
+        socket.connect(new InetSocketAddress(host, port));
+        return socket;
+    }
+
+    private static void pump(InputStream from, Socket to) {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try {
+            OutputStream out = to.getOutputStream();
+            int n;
+            while ((n = from.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+                out.flush();
+            }
+        } catch (IOException ignored) {
+            // the other direction closed the sockets
+        }
+    }
+
+    private static long relayDownstream(InputStream from, OutputStream to, FaultRule rule) throws IOException, InterruptedException {
+        long limit = rule != null && rule.truncateAfterBytes >= 0 ? rule.truncateAfterBytes : Long.MAX_VALUE;
+        long bytesPerSecond = rule != null ? rule.bytesPerSecond : 0;
+        // throttled relays write in ~10 slices per second so the cap is smooth
+        int chunk = bytesPerSecond > 0 ? (int) Math.max(1, Math.min(BUFFER_SIZE, bytesPerSecond / 10)) : BUFFER_SIZE;
+
+        byte[] buffer = new byte[chunk];
+        long sent = 0;
+        long start = System.nanoTime();
+        int n;
+        while (sent < limit && (n = from.read(buffer, 0, (int) Math.min(chunk, limit - sent))) != -1) {
+            to.write(buffer, 0, n);
+            to.flush();
+            sent += n;
+            if (bytesPerSecond > 0) {
+                long dueNanos = sent * 1_000_000_000L / bytesPerSecond;
+                long aheadMillis = (dueNanos - (System.nanoTime() - start)) / 1_000_000;
+                if (aheadMillis > 0) Thread.sleep(aheadMillis);
+            }
+        }
+        return sent;
+    }
+
+    private static void abort(Socket socket) {
+        try {
+            // linger 0 makes close() send RST instead of FIN
+            socket.setSoLinger(true, 0);
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * A scripted fault for every route matching a regex, e.g. {@code FaultRule.forRoute("POST /api/.*upload")}.
+     */
+    public static class FaultRule {
+        private final Pattern routePattern;
+        private long latencyMillis;
+        private long bytesPerSecond;
+        private boolean reset;
+        private long truncateAfterBytes = -1;
+        private final AtomicInteger remaining = new AtomicInteger(-1);
+
+        private FaultRule(String routeRegex) {
+            this.routePattern = Pattern.compile(routeRegex);
+        }
+
+        public static FaultRule forRoute(String routeRegex) {
+            return new FaultRule(routeRegex);
+        }
+
+        public static FaultRule forAllRoutes() {
+            return new FaultRule(".*");
+        }
+
+        public FaultRule latency(long millis) {
+            this.latencyMillis = millis;
+            return this;
+        }
+
+        public FaultRule bandwidth(long bytesPerSecond) {
+            this.bytesPerSecond = bytesPerSecond;
+            return this;
+        }
+
+        public FaultRule reset() {
+            this.reset = true;
+            return this;
+        }
+
+        public FaultRule truncateAfter(long bytes) {
+            this.truncateAfterBytes = bytes;
+            return this;
+        }
+
+        /**
+         * Apply only to the next {@code count} matching connections, then pass through.
+         */
+        public FaultRule times(int count) {
+            remaining.set(count);
+            return this;
+        }
+
+        private boolean consume() {
+            while (true) {
+                int left = remaining.get();
+                if (left < 0) return true;
+                if (left == 0) return false;
+                if (remaining.compareAndSet(left, left - 1)) return true;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "FaultRule{" +
+                    "route=" + routePattern.pattern() +
+                    ", latencyMillis=" + latencyMillis +
+                    ", bytesPerSecond=" + bytesPerSecond +
+                    ", reset=" + reset +
+                    ", truncateAfterBytes=" + truncateAfterBytes +
+                    '}';
+        }
+    }
+
+    public static class Exchange {
+        private final String route;
+        private final String fault;
+        private final long bytesToClient;
+        private final long durationMillis;
+        private final String error;
+
+        public Exchange(String route, String fault, long bytesToClient, long durationMillis, String error) {
+            this.route = route;
+            this.fault = fault;
+            this.bytesToClient = bytesToClient;
+            this.durationMillis = durationMillis;
+            this.error = error;
+        }
+
+        public String getRoute() {
+            return route;
+        }
+
+        public String getFault() {
+            return fault;
+        }
+
+        public long getBytesToClient() {
+            return bytesToClient;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            return "Exchange{" +
+                    "route='" + route + '\'' +
+                    ", fault=" + fault +
+                    ", bytesToClient=" + bytesToClient +
+                    ", durationMillis=" + durationMillis +
+                    (error != null ? ", error='" + error + '\'' : "") +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,365 @@
+package com.appknox.core;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory index of the rows of many summary CSV reports ("appknox reports download
+ * summary-csv"), for portfolio questions such as "all Critical findings mapped to CWE-327 and
+ * OWASP Mobile M5".
+ *
+ * Rows are stored column by column: severity (after any risk override) and platform as enum
+ * ordinals, the CVSS score as a float and the {@link #TEXT_COLUMNS} as ids into one pool of
+ * interned strings, so the description and other texts repeated on every row of a test case are
+ * held once. Each code of the {@link #COMPLIANCE_COLUMNS} ("CWE-327", "M5", "MASVS-CRYPTO-2", ...)
+ * and each severity and platform has a bitset of the rows carrying it; a {@link Query} ANDs those
+ * bitsets, so it costs a few word operations per thousand rows. The other columns are not kept.
+ *
+ * Not thread-safe: add the reports first, then query.
+ */
+public class FindingsIndex {
+    public enum Severity {
+        UNTESTED, PASSED, LOW, MEDIUM, HIGH, CRITICAL;
+
+        public static Severity parse(String value) {
+            if (value == null) return null;
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    public enum Platform {
+        ANDROID, IOS, OTHER;
+
+        public static Platform parse(String value) {
+            return switch (value.trim().toLowerCase(Locale.ROOT)) {
+                case "android" -> ANDROID;
+                case "ios" -> IOS;
+                default -> OTHER;
+            };
+        }
+    }
+
+    public static final List<String> TEXT_COLUMNS = List.of(
+            "Project ID", "Application Name", "Application Namespace", "Version", "File ID", "Test Case",
+            "Scan Type", "Findings", "Description", "Created On");
+    public static final List<String> COMPLIANCE_COLUMNS = List.of(
+            "OWASP", "OWASP Mobile Top 10 (2024)", "CWE", "MSTG", "OWASP MASVS (v2)", "OWASP API 2023", "ASVS",
+            "PCI-DSS", "PCI-DSS (v4.0)", "GDPR", "NIST SP 800-53", "NIST SP 800-171", "SAMA");
+
+    private final Map<String, Integer> internIds = new HashMap<>();
+    private final List<String> interned = new ArrayList<>();
+
+    private int rows;
+    private byte[] severities = new byte[1024];
+    private byte[] platforms = new byte[1024];
+    private float[] cvssScores = new float[1024];
+    private final int[][] texts = new int[TEXT_COLUMNS.size()][1024];
+
+    private final Map<Severity, BitSet> bySeverity = new EnumMap<>(Severity.class);
+    private final Map<Platform, BitSet> byPlatform = new EnumMap<>(Platform.class);
+    private final Map<String, Map<String, BitSet>> byCompliance = new LinkedHashMap<>();
+
+    public FindingsIndex() {
+        for (String standard : COMPLIANCE_COLUMNS) byCompliance.put(standard, new HashMap<>());
+    }
+
+    /**
+     * Validates {@code csv} and adds its rows; rows with a wrong field count or an unknown
+     * severity are left out. Columns missing from the report are stored as empty.
+     */
+    public ReportSummary add(Path csv) throws IOException {
+        return new CsvReportValidator().validateRows(csv, new CsvReportValidator.RowListener() {
+            private int[] textColumns;
+            private int[] complianceColumns;
+            private int severityColumn;
+            private int overrideColumn;
+            private int platformColumn;
+            private int cvssColumn;
+
+            @Override
+            public void row(ReportSummary summary, long line, List<String> record) {
+                if (textColumns == null) {
+                    List<String> header = summary.getColumns();
+                    textColumns = TEXT_COLUMNS.stream().mapToInt(header::indexOf).toArray();
+                    complianceColumns = COMPLIANCE_COLUMNS.stream().mapToInt(header::indexOf).toArray();
+                    severityColumn = header.indexOf("Severity");
+                    overrideColumn = header.indexOf("Risk Override");
+                    platformColumn = header.indexOf("Platform");
+                    cvssColumn = header.indexOf("CVSS Score");
+                }
+                String override = cell(record, overrideColumn);
+                Severity severity = Severity.parse(override.isEmpty() ? cell(record, severityColumn) : override);
+                if (severity == null) return;
+                addRow(record, severity, textColumns, complianceColumns, platformColumn, cvssColumn);
+            }
+        });
+    }
+
+    private void addRow(List<String> record, Severity severity, int[] textColumns, int[] complianceColumns,
+                        int platformColumn, int cvssColumn) {
+        if (rows == severities.length) grow();
+        int row = rows++;
+        Platform platform = Platform.parse(cell(record, platformColumn));
+        severities[row] = (byte) severity.ordinal();
+        platforms[row] = (byte) platform.ordinal();
+        cvssScores[row] = parseScore(cell(record, cvssColumn));
+        for (int column = 0; column < textColumns.length; column++) {
+            texts[column][row] = intern(cell(record, textColumns[column]));
+        }
+        bySeverity.computeIfAbsent(severity, key -> new BitSet()).set(row);
+        byPlatform.computeIfAbsent(platform, key -> new BitSet()).set(row);
+        for (int standard = 0; standard < complianceColumns.length; standard++) {
+            String codes = cell(record, complianceColumns[standard]);
+            if (codes.isEmpty()) continue;
+            Map<String, BitSet> byCode = byCompliance.get(COMPLIANCE_COLUMNS.get(standard));
+            for (String code : codes.split(",")) {
+                code = code.trim();
+                if (!code.isEmpty()) byCode.computeIfAbsent(interned.get(intern(code)), key -> new BitSet()).set(row);
+            }
+        }
+    }
+
+    private static String cell(List<String> record, int column) {
+        return column >= 0 && column < record.size() ? record.get(column) : "";
+    }
+
+    private static float parseScore(String value) {
+        try {
+            return value.isEmpty() ? Float.NaN : Float.parseFloat(value);
+        } catch (NumberFormatException e) {
+            return Float.NaN;
+        }
+    }
+
+    private int intern(String value) {
+        Integer id = internIds.get(value);
+        if (id == null) {
+            id = interned.size();
+            internIds.put(value, id);
+            interned.add(value);
+        }
+        return id;
+    }
+
+    private void grow() {
+        int capacity = severities.length * 2;
+        severities = Arrays.copyOf(severities, capacity);
+        platforms = Arrays.copyOf(platforms, capacity);
+        cvssScores = Arrays.copyOf(cvssScores, capacity);
+        for (int column = 0; column < texts.length; column++) {
+            texts[column] = Arrays.copyOf(texts[column], capacity);
+        }
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    /**
+     * Distinct strings held for the text columns and compliance codes.
+     */
+    public int getInternedCount() {
+        return interned.size();
+    }
+
+    /**
+     * Codes seen for a compliance standard (one of {@link #COMPLIANCE_COLUMNS}), with their row counts.
+     */
+    public Map<String, Integer> getCodes(String standard) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        byCompliance.getOrDefault(standard, Map.of()).forEach((code, rowSet) -> counts.put(code, rowSet.cardinality()));
+        return counts;
+    }
+
+    public Finding get(int row) {
+        if (row < 0 || row >= rows) throw new IndexOutOfBoundsException("Row " + row + " of " + rows);
+        return new Finding(row);
+    }
+
+    /**
+     * Query matching every row; each criterion narrows it down.
+     */
+    public Query query() {
+        BitSet all = new BitSet(rows);
+        all.set(0, rows);
+        return new Query(all);
+    }
+
+    public class Query {
+        private final BitSet matches;
+
+        private Query(BitSet matches) {
+            this.matches = matches;
+        }
+
+        /**
+         * Rows with any of the given severities.
+         */
+        public Query severity(Severity... severities) {
+            BitSet any = new BitSet();
+            for (Severity severity : severities) any.or(bySeverity.getOrDefault(severity, new BitSet()));
+            matches.and(any);
+            return this;
+        }
+
+        /**
+         * Rows with a severity of Low or higher that is at least {@code minimum}.
+         */
+        public Query atLeast(Severity minimum) {
+            BitSet any = new BitSet();
+            for (Severity severity : Severity.values()) {
+                if (severity.compareTo(Severity.LOW) >= 0 && severity.compareTo(minimum) >= 0) {
+                    any.or(bySeverity.getOrDefault(severity, new BitSet()));
+                }
+            }
+            matches.and(any);
+            return this;
+        }
+
+        public Query platform(Platform platform) {
+            matches.and(byPlatform.getOrDefault(platform, new BitSet()));
+            return this;
+        }
+
+        /**
+         * Rows mapped to any of the given codes of one standard, e.g. ("CWE", "CWE-327").
+         */
+        public Query compliance(String standard, String... codes) {
+            Map<String, BitSet> byCode = byCompliance.get(standard);
+            if (byCode == null) throw new IllegalArgumentException("Unknown compliance standard '" + standard + "'");
+            BitSet any = new BitSet();
+            for (String code : codes) any.or(byCode.getOrDefault(code, new BitSet()));
+            matches.and(any);
+            return this;
+        }
+
+        /**
+         * Rows whose value in one of the {@link #TEXT_COLUMNS} is exactly {@code value}.
+         */
+        public Query text(String column, String value) {
+            int index = TEXT_COLUMNS.indexOf(column);
+            if (index < 0) throw new IllegalArgumentException("Column '" + column + "' is not indexed");
+            Integer id = internIds.get(value);
+            int[] values = texts[index];
+            for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+                if (id == null || values[row] != id) matches.clear(row);
+            }
+            return this;
+        }
+
+        /**
+         * Rows with a CVSS score of at least {@code minimum}; rows without a score never match.
+         */
+        public Query minCvss(float minimum) {
+            for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+                if (!(cvssScores[row] >= minimum)) matches.clear(row);
+            }
+            return this;
+        }
+
+        public int count() {
+            return matches.cardinality();
+        }
+
+        public BitSet getRows() {
+            return (BitSet) matches.clone();
+        }
+
+        public List<Finding> findings() {
+            List<Finding> findings = new ArrayList<>(matches.cardinality());
+            for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+                findings.add(new Finding(row));
+            }
+            return findings;
+        }
+    }
+
+    /**
+     * View of one indexed row.
+     */
+    public class Finding {
+        private final int row;
+
+        private Finding(int row) {
+            this.row = row;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public Severity getSeverity() {
+            return Severity.values()[severities[row]];
+        }
+
+        public Platform getPlatform() {
+            return Platform.values()[platforms[row]];
+        }
+
+        /**
+         * CVSS score, NaN when the row has none.
+         */
+        public float getCvssScore() {
+            return cvssScores[row];
+        }
+
+        /**
+         * Value of one of the {@link #TEXT_COLUMNS}.
+         */
+        public String get(String column) {
+            int index = TEXT_COLUMNS.indexOf(column);
+            if (index < 0) throw new IllegalArgumentException("Column '" + column + "' is not indexed");
+            return interned.get(texts[index][row]);
+        }
+
+        public String getNamespace() {
+            return get("Application Namespace");
+        }
+
+        public String getTestCase() {
+            return get("Test Case");
+        }
+
+        /**
+         * Codes of one compliance standard this row is mapped to.
+         */
+        public List<String> getCodes(String standard) {
+            List<String> codes = new ArrayList<>();
+            byCompliance.getOrDefault(standard, Map.of()).forEach((code, rowSet) -> {
+                if (rowSet.get(row)) codes.add(code);
+            });
+            Collections.sort(codes);
+            return codes;
+        }
+
+        @Override
+        public String toString() {
+            return getSeverity() + " " + getNamespace() + " '" + getTestCase() + "'";
+        }
+    }
+
+    @Override
+    public String toString() {
+        Map<Severity, Integer> severityCounts = new EnumMap<>(Severity.class);
+        bySeverity.forEach((severity, rowSet) -> severityCounts.put(severity, rowSet.cardinality()));
+        return "FindingsIndex{" +
+                "rows=" + rows +
+                ", interned=" + interned.size() +
+                ", severities=" + severityCounts +
+                '}';
+    }
+}
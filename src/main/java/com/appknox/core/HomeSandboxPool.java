@@ -0,0 +1,175 @@
+package com.appknox.core;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Pre-created throwaway HOME directories (with XDG config/cache/data/state inside) so that CLI
+ * invocations with different credentials never share whatever state the CLI keeps in the home
+ * directory.
+ *
+ * With {@link Scope#PROFILE} every host + token pair gets its own home, reused for all of its
+ * invocations. With {@link Scope#INVOCATION} every invocation gets a fresh home that is wiped and
+ * put back in the pool afterwards. Creating, wiping and deleting happen on a background thread,
+ * so an invocation only ever takes a ready directory off a queue.
+ */
+public class HomeSandboxPool implements AutoCloseable {
+    public enum Scope { PROFILE, INVOCATION }
+
+    private final Path root;
+    private final Scope scope;
+    private final int prewarm;
+    private final BlockingQueue<Path> ready = new LinkedBlockingQueue<>();
+    private final Map<String, Path> profileHomes = new ConcurrentHashMap<>();
+    private final Set<Path> pinned = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger created = new AtomicInteger();
+    private final ExecutorService janitor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "home-sandbox-janitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param root directory to create the pool's own temporary directory in; only that directory
+     *             is deleted on {@link #close()}
+     */
+    public HomeSandboxPool(Path root, Scope scope, int prewarm) throws IOException {
+        this.root = Files.createTempDirectory(Files.createDirectories(root), "homes-");
+        this.scope = scope;
+        this.prewarm = prewarm;
+        background(this::refill);
+    }
+
+    /**
+     * Directory the pool created for its homes.
+     */
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * Home for one invocation with the given environment; hand it back with {@link #release}.
+     */
+    public Path acquire(Map<String, String> env) {
+        if (scope == Scope.INVOCATION) {
+            return take();
+        }
+        String key = CLIExecutor.hostOf(env) + "|" + Integer.toHexString(CLIExecutor.tokenOf(env).hashCode());
+        return profileHomes.computeIfAbsent(key, k -> {
+            Path home = take();
+            pinned.add(home);
+            return home;
+        });
+    }
+
+    public void release(Path home) {
+        if (pinned.contains(home)) return;
+        background(() -> {
+            try {
+                deleteTree(home);
+                if (ready.size() < prewarm) {
+                    ready.offer(createSkeleton(home));
+                }
+            } catch (IOException e) {
+                System.err.println("Could not recycle sandbox home " + home + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Environment that points the CLI at {@code home} for everything it may persist.
+     */
+    public static Map<String, String> envFor(Path home) {
+        Map<String, String> env = new LinkedHashMap<>();
+        env.put("HOME", home.toString());
+        env.put("USERPROFILE", home.toString());
+        env.put("XDG_CONFIG_HOME", home.resolve(".config").toString());
+        env.put("XDG_CACHE_HOME", home.resolve(".cache").toString());
+        env.put("XDG_DATA_HOME", home.resolve(".local/share").toString());
+        env.put("XDG_STATE_HOME", home.resolve(".local/state").toString());
+        return env;
+    }
+
+    public int getCreatedCount() {
+        return created.get();
+    }
+
+    private Path take() {
+        Path home = ready.poll();
+        if (ready.size() < prewarm) {
+            background(this::refill);
+        }
+        if (home != null) return home;
+        try {
+            return newHome();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not create sandbox home under " + root, e);
+        }
+    }
+
+    private void background(Runnable task) {
+        try {
+            janitor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // pool closed, its directory is deleted as a whole
+        }
+    }
+
+    private void refill() {
+        try {
+            while (ready.size() < prewarm) {
+                ready.offer(newHome());
+            }
+        } catch (IOException e) {
+            System.err.println("Could not pre-create sandbox home: " + e.getMessage());
+        }
+    }
+
+    private Path newHome() throws IOException {
+        return createSkeleton(root.resolve("home-" + created.incrementAndGet()));
+    }
+
+    private static Path createSkeleton(Path home) throws IOException {
+        Files.createDirectories(home.resolve(".config"));
+        Files.createDirectories(home.resolve(".cache"));
+        Files.createDirectories(home.resolve(".local/share"));
+        Files.createDirectories(home.resolve(".local/state"));
+        return home;
+    }
+
+    private static void deleteTree(Path path) throws IOException {
+        if (!Files.exists(path)) return;
+        try (Stream<Path> walk = Files.walk(path)) {
+            for (Path entry : walk.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(entry);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        janitor.shutdown();
+        try {
+            janitor.awaitTermination(10, TimeUnit.SECONDS);
+            deleteTree(root);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Could not delete sandbox homes under " + root + ": " + e.getMessage());
+        }
+    }
+}
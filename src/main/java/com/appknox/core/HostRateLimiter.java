@@ -0,0 +1,128 @@
+package com.appknox.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Token bucket shared by every CLI invocation against one APPKNOX_API_HOST.
+ *
+ * The refill rate adapts with AIMD: clean results raise it by roughly {@code additiveStep} permits/s
+ * per second of traffic, each throttled or overloaded result multiplies it by {@code decreaseFactor}.
+ * Decreases are applied at most once per second so a burst of parallel 429s counts as one signal.
+ */
+public class HostRateLimiter {
+    private static final Map<String, HostRateLimiter> LIMITERS = new ConcurrentHashMap<>();
+
+    // status codes only next to "HTTP" / "status", so that a file or project ID of 503 does not count
+    private static final Pattern THROTTLE_PATTERN = Pattern.compile(
+            "\\b((?:https?(?:/[\\d.]+)?|status(?:[ _]?code)?|response code)\\s*[:=]?\\s*(?:429|502|503|504)"
+                    + "|too many requests|rate.?limit\\w*|throttl\\w*|service unavailable|bad gateway|gateway time-?out)\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final long DECREASE_COOLDOWN_NANOS = 1_000_000_000L;
+
+    private final String host;
+    private final double minRate;
+    private final double maxRate;
+    private final double additiveStep;
+    private final double decreaseFactor;
+    private final double burst;
+
+    private double rate;
+    private double tokens;
+    private long lastRefillNanos;
+    private long lastDecreaseNanos;
+    private long throttleCount;
+
+    public HostRateLimiter(String host, double initialRate, double minRate, double maxRate,
+                           double additiveStep, double decreaseFactor) {
+        this.host = host;
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.additiveStep = additiveStep;
+        this.decreaseFactor = decreaseFactor;
+        this.rate = initialRate;
+        this.burst = Math.max(1, initialRate);
+        this.tokens = burst;
+        this.lastRefillNanos = System.nanoTime();
+        this.lastDecreaseNanos = lastRefillNanos - DECREASE_COOLDOWN_NANOS;
+    }
+
+    /**
+     * Shared limiter for a host, created with the given settings on first use.
+     */
+    public static HostRateLimiter forHost(String host, double initialRate, double minRate, double maxRate) {
+        return LIMITERS.computeIfAbsent(host == null ? "" : host,
+                h -> new HostRateLimiter(h, initialRate, minRate, maxRate, 0.5, 0.5));
+    }
+
+    public static boolean isThrottleMessage(String text) {
+        return THROTTLE_PATTERN.matcher(text).find();
+    }
+
+    /**
+     * A failed result whose output reports throttling or an overloaded gateway. A timeout alone is
+     * not a signal: with adaptive timeouts an ordinary slow command times out too.
+     */
+    public static boolean isThrottled(CLIExecutor.CommandResult result) {
+        return !result.isSuccess() && !result.isTimeout() && THROTTLE_PATTERN.matcher(result.getOutput()).find();
+    }
+
+    /**
+     * Blocks until a permit is available. Permits are reserved under the lock and the wait
+     * happens outside it, so concurrent callers queue up in arrival order.
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            refill();
+            tokens -= 1;
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens / rate * 1_000_000_000L);
+        }
+        if (waitNanos > 0) {
+            Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+        }
+    }
+
+    public synchronized void onResult(CLIExecutor.CommandResult result) {
+        refill();
+        if (isThrottled(result)) {
+            throttleCount++;
+            long now = System.nanoTime();
+            if (now - lastDecreaseNanos >= DECREASE_COOLDOWN_NANOS) {
+                rate = Math.max(minRate, rate * decreaseFactor);
+                lastDecreaseNanos = now;
+            }
+        } else {
+            rate = Math.min(maxRate, rate + additiveStep / Math.max(1, rate));
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) * rate / 1_000_000_000L);
+        lastRefillNanos = now;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    public synchronized long getThrottleCount() {
+        return throttleCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "HostRateLimiter{" +
+                "host='" + host + '\'' +
+                ", rate=" + String.format("%.2f", rate) +
+                ", throttleCount=" + throttleCount +
+                '}';
+    }
+}
@@ -0,0 +1,351 @@
+package com.appknox.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Walks projects -&gt; files -&gt; analyses for the whole organization with at most
+ * {@code parallelism} CLI processes at once and writes a compact tab-separated index.
+ *
+ * Every CLI output is cached on disk with a per-level TTL, so a repeated crawl only calls the CLI
+ * for levels that expired. On an incremental refresh, a project whose file list is unchanged since
+ * the previous index keeps its analyses from that index while they are younger than the analyses
+ * TTL; other projects have their files' analyses fetched again, so pending analyses are refreshed.
+ */
+public class InventoryCrawler {
+    private final CLIExecutor executor;
+    private final String cliPath;
+    private final Map<String, String> env;
+    private final Semaphore permits;
+    private final Path cacheDirectory;
+    private final Duration projectsTtl;
+    private final Duration filesTtl;
+    private final Duration analysesTtl;
+    private final AtomicInteger cliCalls = new AtomicInteger();
+    private final AtomicInteger cacheHits = new AtomicInteger();
+    private final AtomicInteger reusedProjects = new AtomicInteger();
+
+    public InventoryCrawler(CLIExecutor executor, String cliPath, Map<String, String> env, int parallelism,
+                            Path cacheDirectory, Duration projectsTtl, Duration filesTtl, Duration analysesTtl) {
+        this.executor = executor;
+        this.cliPath = cliPath;
+        this.env = env;
+        this.permits = new Semaphore(parallelism);
+        this.cacheDirectory = cacheDirectory;
+        this.projectsTtl = projectsTtl;
+        this.filesTtl = filesTtl;
+        this.analysesTtl = analysesTtl;
+    }
+
+    /**
+     * Rows of a CLI listing whose first column is a numeric ID, keyed by that ID in output order.
+     */
+    public static Map<String, String> idRows(String output) {
+        Map<String, String> rows = new LinkedHashMap<>();
+        for (CliTable.Row row : CliTable.parse(output).getRows()) {
+            String id = row.get(0);
+            if (id != null && !id.isEmpty() && id.chars().allMatch(Character::isDigit)) {
+                rows.putIfAbsent(id, row.getLine());
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Crawls the organization. {@code previous} may be null; when given, projects whose file
+     * listing hashes the same reuse that index's analyses until they are older than the analyses TTL.
+     */
+    public Inventory crawl(Inventory previous) throws IOException, InterruptedException {
+        String projectsOutput = fetch("projects", List.of("projects"), projectsTtl);
+        Map<String, String> projectRows = idRows(projectsOutput);
+
+        Map<String, ProjectEntry> projects = new LinkedHashMap<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            Map<String, Future<ProjectEntry>> futures = new LinkedHashMap<>();
+            for (Map.Entry<String, String> row : projectRows.entrySet()) {
+                ProjectEntry before = previous != null ? previous.getProjects().get(row.getKey()) : null;
+                futures.put(row.getKey(), pool.submit(() -> crawlProject(pool, row.getKey(), row.getValue(), before)));
+            }
+            for (Map.Entry<String, Future<ProjectEntry>> future : futures.entrySet()) {
+                try {
+                    projects.put(future.getKey(), future.getValue().get());
+                } catch (ExecutionException e) {
+                    throw new IOException("Crawling project " + future.getKey() + " failed", e.getCause());
+                }
+            }
+        }
+        return new Inventory(projects);
+    }
+
+    private ProjectEntry crawlProject(ExecutorService pool, String projectId, String row, ProjectEntry before)
+            throws IOException, InterruptedException, ExecutionException {
+        String filesOutput = fetch("files/" + projectId, List.of("files", projectId), filesTtl);
+        Map<String, String> fileRows = idRows(filesOutput);
+        String filesHash = Integer.toHexString(fileRows.toString().hashCode());
+
+        boolean reuse = before != null && before.getFilesHash().equals(filesHash)
+                && System.currentTimeMillis() - before.getAnalysesFetched() < analysesTtl.toMillis();
+        if (reuse) {
+            reusedProjects.incrementAndGet();
+            Map<String, FileEntry> files = new LinkedHashMap<>();
+            for (Map.Entry<String, String> file : fileRows.entrySet()) {
+                FileEntry known = before.getFiles().get(file.getKey());
+                files.put(file.getKey(), new FileEntry(file.getKey(), file.getValue(),
+                        known != null ? known.getAnalyses() : new ArrayList<>()));
+            }
+            return new ProjectEntry(projectId, row, filesHash, before.getAnalysesFetched(), files);
+        }
+
+        Map<String, Future<FileEntry>> futures = new LinkedHashMap<>();
+        for (Map.Entry<String, String> file : fileRows.entrySet()) {
+            futures.put(file.getKey(), pool.submit(() -> new FileEntry(file.getKey(), file.getValue(),
+                    new ArrayList<>(idRows(fetch("analyses/" + file.getKey(),
+                            List.of("analyses", file.getKey()), analysesTtl)).values()))));
+        }
+        Map<String, FileEntry> files = new LinkedHashMap<>();
+        // the analyses are as old as the oldest cached listing they were read from
+        long analysesFetched = System.currentTimeMillis();
+        for (Map.Entry<String, Future<FileEntry>> future : futures.entrySet()) {
+            files.put(future.getKey(), future.getValue().get());
+            analysesFetched = Math.min(analysesFetched,
+                    Files.getLastModifiedTime(cacheFile("analyses/" + future.getKey())).toMillis());
+        }
+        return new ProjectEntry(projectId, row, filesHash, analysesFetched, files);
+    }
+
+    /**
+     * CLI output for {@code args}, from the cache while younger than {@code ttl}.
+     */
+    private String fetch(String cacheKey, List<String> args, Duration ttl) throws IOException, InterruptedException {
+        Path cached = cacheFile(cacheKey);
+        if (isFresh(cached, ttl)) {
+            cacheHits.incrementAndGet();
+            return Files.readString(cached);
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(cliPath);
+        command.addAll(args);
+        CLIExecutor.CommandResult result;
+        permits.acquire();
+        try {
+            cliCalls.incrementAndGet();
+            result = executor.executeCommand(command, env);
+        } finally {
+            permits.release();
+        }
+        if (!result.isSuccess()) {
+            throw new IOException(String.join(" ", args) + " failed: " + result.getOutput());
+        }
+
+        Files.createDirectories(cached.getParent());
+        Path temp = Files.createTempFile(cached.getParent(), cached.getFileName().toString(), ".tmp");
+        Files.writeString(temp, result.getOutput());
+        Files.move(temp, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return result.getOutput();
+    }
+
+    private Path cacheFile(String cacheKey) {
+        return cacheDirectory.resolve(cacheKey + ".out");
+    }
+
+    private static boolean isFresh(Path cached, Duration ttl) throws IOException {
+        return Files.exists(cached)
+                && System.currentTimeMillis() - Files.getLastModifiedTime(cached).toMillis() < ttl.toMillis();
+    }
+
+    public int getCliCalls() {
+        return cliCalls.get();
+    }
+
+    public int getCacheHits() {
+        return cacheHits.get();
+    }
+
+    public int getReusedProjects() {
+        return reusedProjects.get();
+    }
+
+    public static class Inventory {
+        private final Map<String, ProjectEntry> projects;
+
+        public Inventory(Map<String, ProjectEntry> projects) {
+            this.projects = projects;
+        }
+
+        public Map<String, ProjectEntry> getProjects() {
+            return projects;
+        }
+
+        public int fileCount() {
+            return projects.values().stream().mapToInt(project -> project.getFiles().size()).sum();
+        }
+
+        public int analysisCount() {
+            return projects.values().stream()
+                    .flatMap(project -> project.getFiles().values().stream())
+                    .mapToInt(file -> file.getAnalyses().size()).sum();
+        }
+
+        /**
+         * One line per entity: "P id filesHash analysesFetched row", "F projectId fileId row", "A fileId row".
+         */
+        public void write(Path target) throws IOException {
+            if (target.getParent() != null) Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), "inventory", ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (ProjectEntry project : projects.values()) {
+                    writer.write("P\t" + project.getId() + "\t" + project.getFilesHash() + "\t" + project.getAnalysesFetched()
+                            + "\t" + clean(project.getRow()) + "\n");
+                    for (FileEntry file : project.getFiles().values()) {
+                        writer.write("F\t" + project.getId() + "\t" + file.getId() + "\t" + clean(file.getRow()) + "\n");
+                        for (String analysis : file.getAnalyses()) {
+                            writer.write("A\t" + file.getId() + "\t" + clean(analysis) + "\n");
+                        }
+                    }
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        /**
+         * Reads an index written by {@link #write}; a truncated or otherwise damaged index raises an
+         * IOException, so the caller can crawl from scratch instead.
+         */
+        public static Inventory read(Path source) throws IOException {
+            Map<String, ProjectEntry> projects = new LinkedHashMap<>();
+            Map<String, FileEntry> files = new HashMap<>();
+            try (BufferedReader reader = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] parts = line.split("\t", -1);
+                    // a line cut short by a truncated write
+                    if (parts.length < ("A".equals(parts[0]) ? 3 : 4)) {
+                        throw new IOException("Incomplete inventory record: " + line);
+                    }
+                    switch (parts[0]) {
+                        // an index written before analysesFetched was recorded has its analyses refetched
+                        case "P" -> projects.put(parts[1], parts.length > 4
+                                ? new ProjectEntry(parts[1], parts[4], parts[2], parseMillis(parts[3], line), new LinkedHashMap<>())
+                                : new ProjectEntry(parts[1], parts[3], parts[2], 0, new LinkedHashMap<>()));
+                        case "F" -> {
+                            ProjectEntry project = projects.get(parts[1]);
+                            if (project == null) throw new IOException("File without its project: " + line);
+                            FileEntry file = new FileEntry(parts[2], parts[3], new ArrayList<>());
+                            files.put(parts[2], file);
+                            project.getFiles().put(parts[2], file);
+                        }
+                        case "A" -> {
+                            FileEntry file = files.get(parts[1]);
+                            if (file == null) throw new IOException("Analysis without its file: " + line);
+                            file.getAnalyses().add(parts[2]);
+                        }
+                        default -> throw new IOException("Unknown inventory record: " + line);
+                    }
+                }
+            }
+            return new Inventory(projects);
+        }
+
+        private static long parseMillis(String value, String line) throws IOException {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                throw new IOException("Bad analysesFetched in inventory record: " + line, e);
+            }
+        }
+
+        private static String clean(String row) {
+            return row.replace('\t', ' ').replaceAll("\\s{2,}", " ");
+        }
+
+        @Override
+        public String toString() {
+            return "Inventory{" +
+                    "projects=" + projects.size() +
+                    ", files=" + fileCount() +
+                    ", analyses=" + analysisCount() +
+                    '}';
+        }
+    }
+
+    public static class ProjectEntry {
+        private final String id;
+        private final String row;
+        private final String filesHash;
+        private final long analysesFetched;
+        private final Map<String, FileEntry> files;
+
+        public ProjectEntry(String id, String row, String filesHash, long analysesFetched, Map<String, FileEntry> files) {
+            this.id = id;
+            this.row = row;
+            this.filesHash = filesHash;
+            this.analysesFetched = analysesFetched;
+            this.files = files;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getRow() {
+            return row;
+        }
+
+        public String getFilesHash() {
+            return filesHash;
+        }
+
+        /**
+         * Epoch millis when the oldest of this project's analyses listings was fetched from the CLI.
+         */
+        public long getAnalysesFetched() {
+            return analysesFetched;
+        }
+
+        public Map<String, FileEntry> getFiles() {
+            return files;
+        }
+    }
+
+    public static class FileEntry {
+        private final String id;
+        private final String row;
+        private final List<String> analyses;
+
+        public FileEntry(String id, String row, List<String> analyses) {
+            this.id = id;
+            this.row = row;
+            this.analyses = analyses;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getRow() {
+            return row;
+        }
+
+        public List<String> getAnalyses() {
+            return analyses;
+        }
+    }
+}
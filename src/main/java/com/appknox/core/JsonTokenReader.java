@@ -0,0 +1,274 @@
+package com.appknox.core;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Pull tokenizer for JSON documents read from a character stream, for validators that must not
+ * build the document tree. Only the current token is held in memory; values a caller is not
+ * interested in are passed over with {@link #skipValue()}. String values longer than
+ * {@link #MAX_STRING_CHARS} are cut off at that length.
+ */
+final class JsonTokenReader {
+    enum Token { BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END }
+
+    static final int MAX_STRING_CHARS = 1 << 20;
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int NONEMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    private final Reader in;
+    private final StringBuilder text = new StringBuilder();
+    private int[] stack = new int[32];
+    private int depth = 1;
+    private Token peeked;
+    private int pushback = -2;
+    private long line = 1;
+
+    JsonTokenReader(Reader in) {
+        this.in = in;
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    long getLine() {
+        return line;
+    }
+
+    Token peek() throws IOException {
+        if (peeked != null) return peeked;
+        int c;
+        switch (stack[depth - 1]) {
+            case EMPTY_DOCUMENT -> {
+                stack[depth - 1] = NONEMPTY_DOCUMENT;
+                c = nextNonWhitespace();
+            }
+            case NONEMPTY_DOCUMENT -> {
+                c = nextNonWhitespace();
+                if (c < 0) return peeked = Token.END;
+                throw syntaxError("Unexpected data after the document");
+            }
+            case EMPTY_ARRAY -> {
+                stack[depth - 1] = NONEMPTY_ARRAY;
+                c = nextNonWhitespace();
+                if (c == ']') return peeked = Token.END_ARRAY;
+            }
+            case NONEMPTY_ARRAY -> {
+                c = nextNonWhitespace();
+                if (c == ']') return peeked = Token.END_ARRAY;
+                if (c != ',') throw syntaxError("Expected ',' or ']'");
+                c = nextNonWhitespace();
+            }
+            case EMPTY_OBJECT, NONEMPTY_OBJECT -> {
+                boolean empty = stack[depth - 1] == EMPTY_OBJECT;
+                stack[depth - 1] = DANGLING_NAME;
+                c = nextNonWhitespace();
+                if (c == '}') return peeked = Token.END_OBJECT;
+                if (!empty) {
+                    if (c != ',') throw syntaxError("Expected ',' or '}'");
+                    c = nextNonWhitespace();
+                }
+                if (c != '"') throw syntaxError("Expected a member name");
+                readString();
+                return peeked = Token.NAME;
+            }
+            case DANGLING_NAME -> {
+                stack[depth - 1] = NONEMPTY_OBJECT;
+                if (nextNonWhitespace() != ':') throw syntaxError("Expected ':'");
+                c = nextNonWhitespace();
+            }
+            default -> throw new IllegalStateException();
+        }
+        return peeked = value(c);
+    }
+
+    void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        depth--;
+    }
+
+    void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        depth--;
+    }
+
+    /**
+     * Whether the current object or array has another member.
+     */
+    boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END;
+    }
+
+    String nextName() throws IOException {
+        expect(Token.NAME);
+        return text.toString();
+    }
+
+    /**
+     * Text of a string, number, boolean or null value.
+     */
+    String nextScalar() throws IOException {
+        Token token = peek();
+        if (token != Token.STRING && token != Token.NUMBER && token != Token.BOOLEAN && token != Token.NULL) {
+            throw syntaxError("Expected a value but found " + token);
+        }
+        peeked = null;
+        return token == Token.NULL ? null : text.toString();
+    }
+
+    void skipValue() throws IOException {
+        int level = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT -> {
+                    beginObject();
+                    level++;
+                }
+                case BEGIN_ARRAY -> {
+                    beginArray();
+                    level++;
+                }
+                case END_OBJECT -> {
+                    endObject();
+                    level--;
+                }
+                case END_ARRAY -> {
+                    endArray();
+                    level--;
+                }
+                case END -> throw syntaxError("Unexpected end of document");
+                default -> peeked = null;
+            }
+        } while (level > 0);
+    }
+
+    IOException syntaxError(String message) {
+        return new IOException("Malformed JSON at line " + line + ": " + message);
+    }
+
+    private void expect(Token token) throws IOException {
+        if (peek() != token) throw syntaxError("Expected " + token + " but found " + peeked);
+        peeked = null;
+    }
+
+    private void push(int state) {
+        if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+        stack[depth++] = state;
+    }
+
+    private Token value(int c) throws IOException {
+        text.setLength(0);
+        switch (c) {
+            case '{' -> {
+                return Token.BEGIN_OBJECT;
+            }
+            case '[' -> {
+                return Token.BEGIN_ARRAY;
+            }
+            case '"' -> {
+                readString();
+                return Token.STRING;
+            }
+            case 't' -> {
+                literal("true");
+                return Token.BOOLEAN;
+            }
+            case 'f' -> {
+                literal("false");
+                return Token.BOOLEAN;
+            }
+            case 'n' -> {
+                literal("null");
+                return Token.NULL;
+            }
+            case -1 -> throw syntaxError("Unexpected end of document");
+            default -> {
+                if (c != '-' && (c < '0' || c > '9')) throw syntaxError("Unexpected character '" + (char) c + "'");
+                text.append((char) c);
+                int next;
+                while ((next = read()) >= 0 && (Character.isDigit(next) || "+-.eE".indexOf(next) >= 0)) {
+                    text.append((char) next);
+                }
+                pushback = next;
+                return Token.NUMBER;
+            }
+        }
+    }
+
+    private void literal(String word) throws IOException {
+        text.append(word.charAt(0));
+        for (int i = 1; i < word.length(); i++) {
+            int c = read();
+            if (c != word.charAt(i)) throw syntaxError("Expected '" + word + "'");
+            text.append((char) c);
+        }
+    }
+
+    private void readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int c = read();
+            if (c < 0) throw syntaxError("Unterminated string");
+            if (c == '"') return;
+            if (c == '\\') {
+                c = read();
+                switch (c) {
+                    case 'n' -> c = '\n';
+                    case 't' -> c = '\t';
+                    case 'r' -> c = '\r';
+                    case 'b' -> c = '\b';
+                    case 'f' -> c = '\f';
+                    case 'u' -> {
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(read(), 16);
+                            if (digit < 0) throw syntaxError("Invalid \\u escape");
+                            code = code * 16 + digit;
+                        }
+                        c = code;
+                    }
+                    case '"', '\\', '/' -> {
+                    }
+                    default -> throw syntaxError("Invalid escape");
+                }
+            } else if (c == '\n') {
+                line++;
+            }
+            if (text.length() < MAX_STRING_CHARS) text.append((char) c);
+        }
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        int c;
+        do {
+            c = read();
+            if (c == '\n') line++;
+        } while (c == ' ' || c == '\t' || c == '\n' || c == '\r');
+        return c;
+    }
+
+    private int read() throws IOException {
+        if (pushback != -2) {
+            int c = pushback;
+            pushback = -2;
+            return c;
+        }
+        return in.read();
+    }
+}
@@ -0,0 +1,143 @@
+package com.appknox.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persisted per-subcommand latency samples used to derive adaptive timeouts.
+ *
+ * Timeout = p99 of the recent samples times {@code safetyFactor}, clamped to [min, max].
+ * Subcommands with fewer than {@code minSamples} samples fall back to the configured timeout.
+ * A timed-out run is recorded at its timeout, a lower bound of its real latency, so a subcommand
+ * that became slower widens its own timeout instead of timing out for good. Runs that failed
+ * with an error from the CLI (bad token, unknown host, ...) are not recorded: they return early
+ * and would pull the percentile down.
+ */
+public class LatencyHistory {
+    private static final int MAX_SAMPLES = 200;
+
+    private final Path file;
+    private final int minSamples;
+    private final double safetyFactor;
+    private final long minTimeoutMillis;
+    private final long maxTimeoutMillis;
+    private final Map<String, Deque<Long>> samples = new ConcurrentHashMap<>();
+
+    public LatencyHistory(Path file, int minSamples, double safetyFactor, long minTimeoutMillis, long maxTimeoutMillis) {
+        this.file = file;
+        this.minSamples = minSamples;
+        this.safetyFactor = safetyFactor;
+        this.minTimeoutMillis = minTimeoutMillis;
+        this.maxTimeoutMillis = maxTimeoutMillis;
+        load();
+    }
+
+    /**
+     * Stable key for a CLI invocation: the leading word tokens after the binary, e.g.
+     * "reports download summary-csv" or "whoami". Flag-only invocations use the first flag.
+     */
+    public static String subcommandKey(List<String> command) {
+        StringBuilder key = new StringBuilder();
+        for (int i = 1; i < command.size() && i <= 3; i++) {
+            String token = command.get(i);
+            if (!token.matches("[a-z][a-z-]*")) break;
+            if (key.length() > 0) key.append(' ');
+            key.append(token);
+        }
+        if (key.length() == 0) {
+            return command.size() > 1 ? command.get(1) : "(none)";
+        }
+        return key.toString();
+    }
+
+    public void record(String key, long durationMillis) {
+        add(key, durationMillis);
+    }
+
+    private void add(String key, long durationMillis) {
+        Deque<Long> window = samples.computeIfAbsent(key, k -> new ArrayDeque<>());
+        synchronized (window) {
+            window.addLast(durationMillis);
+            if (window.size() > MAX_SAMPLES) window.removeFirst();
+        }
+    }
+
+    public long timeoutMillis(String key, long fallbackMillis) {
+        long p99 = percentile(key, 0.99);
+        if (p99 < 0) return fallbackMillis;
+        long timeout = (long) (p99 * safetyFactor);
+        return Math.max(minTimeoutMillis, Math.min(maxTimeoutMillis, timeout));
+    }
+
+    /**
+     * Percentile of the recorded samples for a key, or -1 when there are fewer than minSamples.
+     */
+    public long percentile(String key, double quantile) {
+        Deque<Long> window = samples.get(key);
+        if (window == null) return -1;
+        long[] sorted;
+        synchronized (window) {
+            if (window.size() < minSamples) return -1;
+            sorted = window.stream().mapToLong(Long::longValue).toArray();
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    public int sampleCount(String key) {
+        Deque<Long> window = samples.get(key);
+        if (window == null) return 0;
+        synchronized (window) {
+            return window.size();
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(file)) return;
+        Properties props = new Properties();
+        try (InputStream input = Files.newInputStream(file)) {
+            props.load(input);
+        } catch (IOException e) {
+            System.err.println("Error loading latency history: " + e.getMessage());
+            return;
+        }
+        for (String key : props.stringPropertyNames()) {
+            for (String value : props.getProperty(key).split(",")) {
+                if (!value.isBlank()) add(key, Long.parseLong(value.trim()));
+            }
+        }
+    }
+
+    public synchronized void save() {
+        Properties props = new Properties();
+        samples.forEach((key, window) -> {
+            synchronized (window) {
+                StringBuilder values = new StringBuilder();
+                for (long value : window) {
+                    if (values.length() > 0) values.append(',');
+                    values.append(value);
+                }
+                props.setProperty(key, values.toString());
+            }
+        });
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            try (OutputStream output = Files.newOutputStream(file)) {
+                props.store(output, "CLI latency samples in ms per subcommand");
+            }
+        } catch (IOException e) {
+            System.err.println("Error saving latency history: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.appknox.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Case-insensitive Aho-Corasick matcher for the phrases a test expects in (or forbids from) CLI
+ * output. All phrases are found in a single pass, fed chunk by chunk while the output streams in,
+ * without lowercasing or otherwise copying the output.
+ *
+ * The automaton is immutable and can be shared; every invocation gets its own {@link Scan}.
+ */
+public final class PhraseMatcher {
+    private final List<String> expected;
+    private final List<String> forbidden;
+    // trie edges per node: sorted folded chars and their target nodes
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] fail;
+    // phrase ids ending at each node, including those inherited through fail links
+    private final int[][] outputs;
+
+    private PhraseMatcher(List<String> expected, List<String> forbidden) {
+        this.expected = List.copyOf(expected);
+        this.forbidden = List.copyOf(forbidden);
+
+        List<String> phrases = new ArrayList<>(expected);
+        phrases.addAll(forbidden);
+
+        List<StringBuilder> chars = new ArrayList<>();
+        List<List<Integer>> targets = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        chars.add(new StringBuilder());
+        targets.add(new ArrayList<>());
+        ends.add(new ArrayList<>());
+        for (int id = 0; id < phrases.size(); id++) {
+            String phrase = phrases.get(id);
+            int node = 0;
+            for (int i = 0; i < phrase.length(); i++) {
+                char c = fold(phrase.charAt(i));
+                int edge = chars.get(node).indexOf(String.valueOf(c));
+                if (edge < 0) {
+                    chars.get(node).append(c);
+                    targets.get(node).add(chars.size());
+                    chars.add(new StringBuilder());
+                    targets.add(new ArrayList<>());
+                    ends.add(new ArrayList<>());
+                    node = chars.size() - 1;
+                } else {
+                    node = targets.get(node).get(edge);
+                }
+            }
+            ends.get(node).add(id);
+        }
+
+        int nodes = chars.size();
+        edgeChars = new char[nodes][];
+        edgeTargets = new int[nodes][];
+        for (int node = 0; node < nodes; node++) {
+            char[] keys = chars.get(node).toString().toCharArray();
+            Integer[] order = new Integer[keys.length];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Character.compare(keys[a], keys[b]));
+            edgeChars[node] = new char[keys.length];
+            edgeTargets[node] = new int[keys.length];
+            for (int i = 0; i < order.length; i++) {
+                edgeChars[node][i] = keys[order[i]];
+                edgeTargets[node][i] = targets.get(node).get(order[i]);
+            }
+        }
+
+        // breadth-first so a node's fail target is finished before the node itself
+        fail = new int[nodes];
+        outputs = new int[nodes][];
+        outputs[0] = new int[0];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : edgeTargets[0]) {
+            fail[child] = 0;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            int[] own = ends.get(node).stream().mapToInt(Integer::intValue).toArray();
+            int[] inherited = outputs[fail[node]];
+            outputs[node] = Arrays.copyOf(own, own.length + inherited.length);
+            System.arraycopy(inherited, 0, outputs[node], own.length, inherited.length);
+
+            for (int i = 0; i < edgeChars[node].length; i++) {
+                int child = edgeTargets[node][i];
+                int state = fail[node];
+                int next;
+                while ((next = step(state, edgeChars[node][i])) < 0 && state != 0) {
+                    state = fail[state];
+                }
+                fail[child] = next >= 0 ? next : 0;
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Passes when at least one (see {@link Verdict#anyExpected}) or all (see
+     * {@link Verdict#allExpected}) of the phrases occur.
+     */
+    public static PhraseMatcher expecting(String... phrases) {
+        return new PhraseMatcher(List.of(phrases), List.of());
+    }
+
+    /**
+     * Same expected phrases, plus phrases that must not occur.
+     */
+    public PhraseMatcher forbidding(String... phrases) {
+        List<String> all = new ArrayList<>(forbidden);
+        all.addAll(List.of(phrases));
+        return new PhraseMatcher(expected, all);
+    }
+
+    public Scan newScan() {
+        return new Scan();
+    }
+
+    /**
+     * Scans complete output in one go, for results that never streamed (e.g. rejected calls).
+     */
+    public Verdict scan(CharSequence output) {
+        Scan scan = newScan();
+        scan.feed(output);
+        return scan.verdict();
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private int step(int node, char folded) {
+        int index = Arrays.binarySearch(edgeChars[node], folded);
+        return index >= 0 ? edgeTargets[node][index] : -1;
+    }
+
+    public final class Scan {
+        private final BitSet found = new BitSet();
+        private int state;
+
+        public void feed(CharSequence chunk) {
+            for (int i = 0; i < chunk.length(); i++) {
+                feed(chunk.charAt(i));
+            }
+        }
+
+        public void feed(char c) {
+            char folded = fold(c);
+            int next;
+            while ((next = step(state, folded)) < 0 && state != 0) {
+                state = fail[state];
+            }
+            state = next >= 0 ? next : 0;
+            for (int id : outputs[state]) {
+                found.set(id);
+            }
+        }
+
+        public Verdict verdict() {
+            Set<String> matched = new LinkedHashSet<>();
+            Set<String> missing = new LinkedHashSet<>();
+            Set<String> forbiddenFound = new LinkedHashSet<>();
+            for (int id = 0; id < expected.size(); id++) {
+                (found.get(id) ? matched : missing).add(expected.get(id));
+            }
+            for (int id = 0; id < forbidden.size(); id++) {
+                if (found.get(expected.size() + id)) forbiddenFound.add(forbidden.get(id));
+            }
+            return new Verdict(matched, missing, forbiddenFound);
+        }
+    }
+
+    public static class Verdict {
+        private final Set<String> matched;
+        private final Set<String> missing;
+        private final Set<String> forbidden;
+
+        public Verdict(Set<String> matched, Set<String> missing, Set<String> forbidden) {
+            this.matched = matched;
+            this.missing = missing;
+            this.forbidden = forbidden;
+        }
+
+        public Set<String> getMatched() {
+            return matched;
+        }
+
+        public Set<String> getMissing() {
+            return missing;
+        }
+
+        public Set<String> getForbidden() {
+            return forbidden;
+        }
+
+        public boolean anyExpected() {
+            return !matched.isEmpty();
+        }
+
+        public boolean allExpected() {
+            return missing.isEmpty();
+        }
+
+        public boolean noneForbidden() {
+            return forbidden.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "Verdict{" +
+                    "matched=" + matched +
+                    ", missing=" + missing +
+                    (forbidden.isEmpty() ? "" : ", forbidden=" + forbidden) +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.appknox.core;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * Samples /proc/&lt;pid&gt;/status, stat and io of a running child process at a fixed
+ * interval and keeps the peak / last seen values. Linux only; on other platforms
+ * (no /proc) every sample is a no-op and {@link #isSupported()} returns false.
+ *
+ * The JVM reaps a child as soon as it exits, after which its /proc entry is gone, so the values
+ * are those of the last reading while it was alive: the first is taken synchronously by
+ * {@link #start()}, and up to one interval of activity before exit is missed. CPU time and I/O
+ * are therefore lower bounds, and with a single sample (a command shorter than the interval) they
+ * only describe the process just after spawn.
+ */
+public class ProcessSampler implements Runnable {
+    // USER_HZ is 100 on every mainstream Linux kernel config
+    private static final long CLOCK_TICKS_PER_SECOND = 100;
+
+    private final Process process;
+    private final long intervalMillis;
+    private final Path procDir;
+
+    private volatile boolean stopped;
+    private int samples;
+    private long peakRssKb;
+    private long cpuTicks;
+    private long readBytes;
+    private long writeBytes;
+
+    public ProcessSampler(Process process, long intervalMillis) {
+        this.process = process;
+        this.intervalMillis = intervalMillis;
+        this.procDir = Paths.get("/proc", String.valueOf(process.pid()));
+    }
+
+    public static boolean isSupported() {
+        return Files.isDirectory(Paths.get("/proc/self"));
+    }
+
+    public Thread start() {
+        sample();
+        return Thread.ofVirtual().name("proc-sampler-" + process.pid()).start(this);
+    }
+
+    public void stop() {
+        stopped = true;
+    }
+
+    @Override
+    public void run() {
+        while (!stopped && process.isAlive()) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            sample();
+        }
+    }
+
+    synchronized void sample() {
+        try {
+            for (String line : Files.readAllLines(procDir.resolve("status"))) {
+                // VmHWM is the kernel's own high-water mark, VmRSS the current value
+                if (line.startsWith("VmHWM:") || line.startsWith("VmRSS:")) {
+                    peakRssKb = Math.max(peakRssKb, parseKb(line));
+                }
+            }
+
+            String stat = Files.readString(procDir.resolve("stat"));
+            // comm (field 2) may contain spaces, so split after the closing paren
+            String[] fields = stat.substring(stat.lastIndexOf(')') + 2).trim().split("\\s+");
+            // utime and stime are fields 14 and 15, i.e. index 11 and 12 after comm
+            cpuTicks = Long.parseLong(fields[11]) + Long.parseLong(fields[12]);
+
+            List<String> io = readIo();
+            for (String line : io) {
+                if (line.startsWith("read_bytes:")) {
+                    readBytes = Math.max(readBytes, parseValue(line));
+                } else if (line.startsWith("write_bytes:")) {
+                    writeBytes = Math.max(writeBytes, parseValue(line));
+                }
+            }
+            samples++;
+        } catch (IOException | RuntimeException e) {
+            // process exited between samples or /proc is not readable
+        }
+    }
+
+    private List<String> readIo() throws IOException {
+        Path io = procDir.resolve("io");
+        // io requires ptrace access; some hardened kernels deny it even for own children
+        return Files.isReadable(io) ? Files.readAllLines(io) : List.of();
+    }
+
+    private static long parseKb(String line) {
+        String[] parts = line.split("\\s+");
+        return Long.parseLong(parts[1]);
+    }
+
+    private static long parseValue(String line) {
+        return Long.parseLong(line.substring(line.indexOf(':') + 1).trim());
+    }
+
+    public synchronized ResourceUsage getUsage() {
+        return new ResourceUsage(samples, peakRssKb, cpuTicks * 1000 / CLOCK_TICKS_PER_SECOND, readBytes, writeBytes);
+    }
+
+    public static class ResourceUsage {
+        private final int samples;
+        private final long peakRssKb;
+        private final long cpuTimeMillis;
+        private final long readBytes;
+        private final long writeBytes;
+
+        public ResourceUsage(int samples, long peakRssKb, long cpuTimeMillis, long readBytes, long writeBytes) {
+            this.samples = samples;
+            this.peakRssKb = peakRssKb;
+            this.cpuTimeMillis = cpuTimeMillis;
+            this.readBytes = readBytes;
+            this.writeBytes = writeBytes;
+        }
+
+        public int getSamples() {
+            return samples;
+        }
+
+        public long getPeakRssKb() {
+            return peakRssKb;
+        }
+
+        public long getCpuTimeMillis() {
+            return cpuTimeMillis;
+        }
+
+        public long getReadBytes() {
+            return readBytes;
+        }
+
+        public long getWriteBytes() {
+            return writeBytes;
+        }
+
+        @Override
+        public String toString() {
+            return "ResourceUsage{" +
+                    "samples=" + samples +
+                    ", peakRssKb=" + peakRssKb +
+                    ", cpuTimeMillis=" + cpuTimeMillis +
+                    ", readBytes=" + readBytes +
+                    ", writeBytes=" + writeBytes +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.appknox.core;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Polls the CLI until server-side work triggered by upload / reports create is ready.
+ *
+ * Polls back off exponentially from {@code initialDelay} up to {@code maxDelay} with equal jitter
+ * (half fixed, half random) so concurrent awaiters spread out instead of polling in lockstep.
+ * Connectivity and auth failures reported on the CLI's error line end the wait early since
+ * polling cannot fix them.
+ */
+public class ReadinessAwaiter {
+    private static final Pattern PENDING_PATTERN = Pattern.compile(
+            "\\b(waiting|queued|pending|running|in progress|in-progress|scanning|analy[sz]ing)\\b", Pattern.CASE_INSENSITIVE);
+
+    private final CLIExecutor executor;
+    private final String cliPath;
+    private final Map<String, String> env;
+    private final long initialDelayMillis;
+    private final long maxDelayMillis;
+
+    public ReadinessAwaiter(CLIExecutor executor, String cliPath, Map<String, String> env,
+                            long initialDelayMillis, long maxDelayMillis) {
+        this.executor = executor;
+        this.cliPath = cliPath;
+        this.env = env;
+        this.initialDelayMillis = initialDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * Waits until "appknox analyses &lt;fileId&gt;" lists analyses and none of them is still pending.
+     */
+    public AwaitResult awaitAnalysesComplete(String fileId, Duration deadline) {
+        return await(fileId,
+                () -> executor.executeCommand(List.of(cliPath, "analyses", fileId), env),
+                // a header alone right after an upload means no analysis has been created yet
+                result -> result.isSuccess() && !CliTable.parse(result.getOutput()).getRows().isEmpty()
+                        && !PENDING_PATTERN.matcher(result.getOutput()).find(),
+                deadline);
+    }
+
+    /**
+     * Waits until the summary CSV of a report can be downloaded, leaving it at {@code outputFile}.
+     */
+    public AwaitResult awaitReportReady(String reportId, File outputFile, Duration deadline) {
+        return await(reportId,
+                () -> {
+                    outputFile.delete();
+                    return executor.executeCommand(List.of(cliPath, "reports", "download", "summary-csv",
+                            reportId, "--output", outputFile.getPath()), env);
+                },
+                result -> result.isSuccess() && outputFile.length() > 0,
+                deadline);
+    }
+
+    public AwaitResult await(String id, Supplier<CLIExecutor.CommandResult> probe,
+                             Predicate<CLIExecutor.CommandResult> ready, Duration deadline) {
+        long start = System.nanoTime();
+        long deadlineNanos = start + deadline.toNanos();
+        long delay = initialDelayMillis;
+        int attempts = 0;
+        CLIExecutor.CommandResult last = null;
+
+        while (true) {
+            attempts++;
+            last = probe.get();
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            if (ready.test(last)) {
+                return new AwaitResult(id, true, attempts, elapsed, last);
+            }
+            if (isFatal(last)) {
+                return new AwaitResult(id, false, attempts, elapsed, last);
+            }
+
+            long sleep = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+            long remaining = (deadlineNanos - System.nanoTime()) / 1_000_000;
+            if (remaining <= 0) {
+                return new AwaitResult(id, false, attempts, elapsed, last);
+            }
+            try {
+                Thread.sleep(Math.min(sleep, remaining));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new AwaitResult(id, false, attempts, (System.nanoTime() - start) / 1_000_000, last);
+            }
+            delay = Math.min(maxDelayMillis, delay * 2);
+        }
+    }
+
+    /**
+     * A connectivity or auth error from a probe that listed nothing. A probe that printed a table
+     * reached the server, whatever its rows say (e.g. a "... Certificate Pinning" analysis), and a
+     * timeout is polled again.
+     */
+    private static boolean isFatal(CLIExecutor.CommandResult result) {
+        return !result.isSuccess()
+                && CliTable.parse(result.getOutput()).getRows().isEmpty()
+                && CircuitBreaker.classify(result) != null;
+    }
+
+    /**
+     * Runs one awaiter per ID on virtual threads and returns the results in input order.
+     */
+    public static Map<String, AwaitResult> awaitAll(List<String> ids, Function<String, AwaitResult> awaiter) {
+        Map<String, AwaitResult> results = new LinkedHashMap<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<AwaitResult>> futures = new ArrayList<>();
+            for (String id : ids) {
+                futures.add(pool.submit(() -> awaiter.apply(id)));
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                try {
+                    results.put(ids.get(i), futures.get(i).get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (ExecutionException e) {
+                    results.put(ids.get(i), new AwaitResult(ids.get(i), false, 0, 0,
+                            new CLIExecutor.CommandResult(-1, "Exception: " + e.getCause().getMessage(), false)));
+                }
+            }
+        }
+        return results;
+    }
+
+    public static class AwaitResult {
+        private final String id;
+        private final boolean ready;
+        private final int attempts;
+        private final long elapsedMillis;
+        private final CLIExecutor.CommandResult lastResult;
+
+        public AwaitResult(String id, boolean ready, int attempts, long elapsedMillis, CLIExecutor.CommandResult lastResult) {
+            this.id = id;
+            this.ready = ready;
+            this.attempts = attempts;
+            this.elapsedMillis = elapsedMillis;
+            this.lastResult = lastResult;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public boolean isReady() {
+            return ready;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public CLIExecutor.CommandResult getLastResult() {
+            return lastResult;
+        }
+
+        @Override
+        public String toString() {
+            return "AwaitResult{" +
+                    "id='" + id + '\'' +
+                    ", ready=" + ready +
+                    ", attempts=" + attempts +
+                    ", elapsedMillis=" + elapsedMillis +
+                    '}';
+        }
+    }
+}
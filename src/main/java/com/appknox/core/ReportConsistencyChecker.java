@@ -0,0 +1,273 @@
+package com.appknox.core;
+
+import com.appknox.core.CicheckDifferential.Risk;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Checks that the summary CSV, summary Excel, SARIF and cicheck outputs of one file describe the
+ * same findings. All four are parsed in parallel with their streaming validators and reduced to
+ * test case -&gt; risk; each is then compared with the first one available in that order.
+ *
+ * Findings are matched by test case name: the "Test Case" column of the summaries, the rule's
+ * shortDescription in SARIF and the vulnerability name column of cicheck. SARIF only has levels,
+ * so against SARIF a risk is compared as critical/high = error, medium = warning, low = note.
+ * The cicheck output must come from "--risk-threshold low" so that it lists every finding.
+ */
+public class ReportConsistencyChecker {
+    public static final String CSV = "csv";
+    public static final String XLSX = "xlsx";
+    public static final String SARIF = "sarif";
+    public static final String CICHECK = "cicheck";
+    private static final List<String> CICHECK_NAME_COLUMNS = List.of(
+            "VULNERABILITY NAME", "VULNERABILITY", "TEST CASE", "NAME", "TITLE");
+
+    /**
+     * Any argument may be null to leave that format out.
+     */
+    public Result check(Path csv, Path xlsx, Path sarif, String cicheckOutput) throws InterruptedException {
+        Map<String, Callable<Source>> parsers = new LinkedHashMap<>();
+        if (csv != null) parsers.put(CSV, () -> fromSummary(CSV, new CsvReportValidator().validate(csv)));
+        if (xlsx != null) parsers.put(XLSX, () -> fromSummary(XLSX, new XlsxReportValidator().validate(xlsx)));
+        if (cicheckOutput != null) parsers.put(CICHECK, () -> fromCicheck(cicheckOutput));
+        if (sarif != null) parsers.put(SARIF, () -> fromSarif(new SarifReportValidator().validate(sarif)));
+
+        Map<String, Source> sources = new LinkedHashMap<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            Map<String, Future<Source>> futures = new LinkedHashMap<>();
+            parsers.forEach((format, parser) -> futures.put(format, pool.submit(parser)));
+            for (Map.Entry<String, Future<Source>> future : futures.entrySet()) {
+                try {
+                    sources.put(future.getKey(), future.getValue().get());
+                } catch (ExecutionException e) {
+                    Source failed = new Source(future.getKey(), false);
+                    failed.errors.add("Could not read " + future.getKey() + ": " + e.getCause().getMessage());
+                    sources.put(future.getKey(), failed);
+                }
+            }
+        }
+        return new Result(sources);
+    }
+
+    private static Source fromSummary(String format, ReportSummary summary) {
+        Source source = new Source(format, false);
+        summary.getFindings().forEach((testCase, risk) -> source.findings.put(testCase, risk.name()));
+        source.errors.addAll(summary.getErrors());
+        return source;
+    }
+
+    private static Source fromSarif(SarifReportValidator.Result sarif) {
+        Source source = new Source(SARIF, true);
+        for (SarifReportValidator.Rule rule : sarif.getRules().values()) {
+            if (rule.getResults() == 0) continue;
+            String name = rule.getShortDescription() != null ? rule.getShortDescription()
+                    : rule.getName() != null ? rule.getName() : rule.getId();
+            // a rule with results at several levels counts at its most severe one
+            String level = rule.getLevelCounts().containsKey("error") ? "error"
+                    : rule.getLevelCounts().containsKey("warning") ? "warning"
+                    : rule.getLevelCounts().keySet().iterator().next();
+            source.findings.put(name, level);
+        }
+        source.errors.addAll(sarif.getErrors());
+        return source;
+    }
+
+    private static Source fromCicheck(String output) {
+        Source source = new Source(CICHECK, false);
+        CliTable table = CliTable.parse(output, "RISK");
+        int riskColumn = table.columnIndex("RISK");
+        int nameColumn = -1;
+        for (String column : CICHECK_NAME_COLUMNS) {
+            nameColumn = table.columnIndex(column);
+            if (nameColumn >= 0) break;
+        }
+        if (riskColumn < 0 || nameColumn < 0) {
+            source.errors.add("No RISK and vulnerability name columns in cicheck output");
+            return source;
+        }
+        for (CliTable.Row row : table.getRows()) {
+            Risk risk = Risk.parse(row.get(riskColumn));
+            String name = row.get(nameColumn);
+            if (risk != null && name != null) {
+                source.findings.merge(name, risk.name(), (a, b) -> Risk.valueOf(a).compareTo(Risk.valueOf(b)) >= 0 ? a : b);
+            }
+        }
+        return source;
+    }
+
+    /**
+     * SARIF level a finding of this risk is reported with.
+     */
+    public static String sarifLevel(Risk risk) {
+        return switch (risk) {
+            case CRITICAL, HIGH -> "error";
+            case MEDIUM -> "warning";
+            case LOW -> "note";
+        };
+    }
+
+    /**
+     * Findings of one format, keyed by test case. The value is a {@link Risk} name, or a SARIF
+     * level for the (coarse) SARIF source.
+     */
+    public static class Source {
+        private final String format;
+        private final boolean coarse;
+        private final Map<String, String> findings = new LinkedHashMap<>();
+        private final List<String> errors = new ArrayList<>();
+
+        Source(String format, boolean coarse) {
+            this.format = format;
+            this.coarse = coarse;
+        }
+
+        public String getFormat() {
+            return format;
+        }
+
+        public boolean isCoarse() {
+            return coarse;
+        }
+
+        public Map<String, String> getFindings() {
+            return findings;
+        }
+
+        public Map<String, Long> getSeverityCounts() {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            findings.values().forEach(severity -> counts.merge(severity, 1L, Long::sum));
+            return counts;
+        }
+
+        /**
+         * Problems its validator found (first 50), e.g. a malformed file.
+         */
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        @Override
+        public String toString() {
+            return format + "=" + getSeverityCounts();
+        }
+    }
+
+    public static class Mismatch {
+        private final String format;
+        private final String testCase;
+        private final String expected;
+        private final String actual;
+
+        Mismatch(String format, String testCase, String expected, String actual) {
+            this.format = format;
+            this.testCase = testCase;
+            this.expected = expected;
+            this.actual = actual;
+        }
+
+        public String getFormat() {
+            return format;
+        }
+
+        public String getTestCase() {
+            return testCase;
+        }
+
+        /**
+         * Severity in the reference format, null when the finding is only in this one.
+         */
+        public String getExpected() {
+            return expected;
+        }
+
+        /**
+         * Severity in this format, null when the finding is missing from it.
+         */
+        public String getActual() {
+            return actual;
+        }
+
+        @Override
+        public String toString() {
+            if (actual == null) return format + ": missing '" + testCase + "' (" + expected + ")";
+            if (expected == null) return format + ": unexpected '" + testCase + "' (" + actual + ")";
+            return format + ": '" + testCase + "' is " + actual + ", expected " + expected;
+        }
+    }
+
+    public static class Result {
+        private final Map<String, Source> sources;
+        private final String reference;
+        private final List<Mismatch> mismatches = new ArrayList<>();
+
+        Result(Map<String, Source> sources) {
+            this.sources = sources;
+            this.reference = sources.isEmpty() ? null : sources.keySet().iterator().next();
+            if (reference == null) return;
+
+            // SARIF is last in line, so the reference always has exact risks
+            Source base = sources.get(reference);
+            for (Source source : sources.values()) {
+                if (source == base) continue;
+                for (Map.Entry<String, String> finding : base.findings.entrySet()) {
+                    String expected = source.coarse ? sarifLevel(Risk.valueOf(finding.getValue())) : finding.getValue();
+                    String actual = source.findings.get(finding.getKey());
+                    if (actual == null) {
+                        mismatches.add(new Mismatch(source.format, finding.getKey(), expected, null));
+                    } else if (!actual.equals(expected)) {
+                        mismatches.add(new Mismatch(source.format, finding.getKey(), expected, actual));
+                    }
+                }
+                for (Map.Entry<String, String> finding : source.findings.entrySet()) {
+                    if (!base.findings.containsKey(finding.getKey())) {
+                        mismatches.add(new Mismatch(source.format, finding.getKey(), null, finding.getValue()));
+                    }
+                }
+            }
+        }
+
+        public Map<String, Source> getSources() {
+            return sources;
+        }
+
+        /**
+         * Format every other one is compared with: the first of csv, xlsx, cicheck and sarif given.
+         */
+        public String getReference() {
+            return reference;
+        }
+
+        public List<Mismatch> getMismatches() {
+            return mismatches;
+        }
+
+        public List<String> getErrors() {
+            List<String> errors = new ArrayList<>();
+            sources.values().forEach(source -> errors.addAll(source.errors));
+            return errors;
+        }
+
+        public boolean isConsistent() {
+            return mismatches.isEmpty() && getErrors().isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "Consistency{" +
+                    "reference=" + reference +
+                    ", findings=" + sources.values() +
+                    (mismatches.isEmpty() ? "" : ", mismatches=" + mismatches) +
+                    (getErrors().isEmpty() ? "" : ", errors=" + getErrors()) +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,397 @@
+package com.appknox.core;
+
+import com.appknox.core.CicheckDifferential.Risk;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Diffs two summary CSV reports of the same app, typically the scans of two builds, into added,
+ * removed and changed (different risk) findings.
+ *
+ * A finding is a Low to Critical row (after any risk override) and is identified by its
+ * Application Namespace, Test Case and a fingerprint of its Findings text with whitespace
+ * collapsed, so a finding whose details changed shows up as removed and added. The same finding
+ * on several rows of one report counts once, at its highest risk and first line, whichever
+ * report it is in.
+ *
+ * The smaller file is streamed into a hash index holding a 64-bit key, the risk and the line of
+ * every finding (namespaces and test cases are interned); the other file is then streamed against
+ * it, recording the highest risk each indexed finding has there and adding the findings the index
+ * lacks. The changes are reported once both files are read. Both files are validated with
+ * {@link CsvReportValidator} on the way, so memory is proportional to the findings of the smaller
+ * report plus those only the larger one has.
+ */
+public class ReportDiff {
+    public enum ChangeType { ADDED, REMOVED, CHANGED }
+
+    /**
+     * Diff whose changes are collected in {@link Result#getChanges()}.
+     */
+    public Result diff(Path older, Path newer) throws IOException {
+        List<Change> changes = new ArrayList<>();
+        Result result = diff(older, newer, changes::add);
+        result.changes.addAll(changes);
+        return result;
+    }
+
+    /**
+     * Diff whose changes are handed to {@code listener} once both files are read, in no particular order.
+     */
+    public Result diff(Path older, Path newer, Consumer<Change> listener) throws IOException {
+        boolean indexNewer = Files.size(newer) < Files.size(older);
+        Result result = new Result();
+        Consumer<Change> counting = change -> {
+            result.counts.merge(change.getType(), 1L, Long::sum);
+            listener.accept(change);
+        };
+
+        FindingIndex index = new FindingIndex();
+        ReportSummary indexed = new CsvReportValidator().validateRows(indexNewer ? newer : older, new Columns() {
+            @Override
+            void finding(long line, String namespace, String testCase, long key, Risk risk) {
+                index.put(key, namespace, testCase, risk, line, true);
+            }
+        });
+        ReportSummary streamed = new CsvReportValidator().validateRows(indexNewer ? older : newer, new Columns() {
+            @Override
+            void finding(long line, String namespace, String testCase, long key, Risk risk) {
+                int slot = index.find(key);
+                if (slot < 0 || !index.indexedSide[slot]) {
+                    index.put(key, namespace, testCase, risk, line, false);
+                } else if (risk.ordinal() > index.otherRisks[slot]) {
+                    if (index.otherRisks[slot] < 0) index.otherLines[slot] = line;
+                    index.otherRisks[slot] = (byte) risk.ordinal();
+                }
+            }
+        });
+        index.changes(indexNewer, counting);
+
+        result.older = indexNewer ? streamed : indexed;
+        result.newer = indexNewer ? indexed : streamed;
+        result.indexed = index.indexedCount;
+        return result;
+    }
+
+    // ---------- keys ----------
+
+    /**
+     * Resolves the key columns from the header on the first row and hands on the finding rows.
+     */
+    private abstract static class Columns implements CsvReportValidator.RowListener {
+        private int namespaceColumn = -2;
+        private int testCaseColumn;
+        private int findingsColumn;
+
+        @Override
+        public void row(ReportSummary summary, long line, List<String> record) {
+            if (namespaceColumn == -2) {
+                namespaceColumn = summary.getColumns().indexOf("Application Namespace");
+                testCaseColumn = summary.getColumns().indexOf("Test Case");
+                findingsColumn = summary.getColumns().indexOf("Findings");
+            }
+            Risk risk = summary.risk(record);
+            if (risk == null || testCaseColumn < 0) return;
+            String namespace = namespaceColumn >= 0 ? record.get(namespaceColumn) : "";
+            String testCase = record.get(testCaseColumn);
+            long key = hash(hash(hash(FNV_OFFSET, namespace, false), testCase, false),
+                    findingsColumn >= 0 ? record.get(findingsColumn) : "", true);
+            finding(line, namespace, testCase, mix(key), risk);
+        }
+
+        abstract void finding(long line, String namespace, String testCase, long key, Risk risk);
+    }
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * FNV-1a over the chars of {@code text} and a terminator, optionally with every run of
+     * whitespace hashed as a single space and leading/trailing whitespace ignored.
+     */
+    static long hash(long h, String text, boolean collapseWhitespace) {
+        boolean space = false;
+        boolean started = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (collapseWhitespace && Character.isWhitespace(c)) {
+                space = started;
+                continue;
+            }
+            if (space) {
+                h = (h ^ ' ') * FNV_PRIME;
+                space = false;
+            }
+            started = true;
+            h = (h ^ c) * FNV_PRIME;
+        }
+        return (h ^ 0xFFFF) * FNV_PRIME;
+    }
+
+    /**
+     * MurmurHash3 finalizer, so that the low bits used for the table slot depend on every char.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h != 0 ? h : 1;
+    }
+
+    // ---------- index ----------
+
+    /**
+     * Open-addressing table of finding keys (0 marks a free slot) with parallel arrays for the
+     * risk, line, interned namespace and test case. A finding of the indexed report also holds its
+     * highest risk and first line in the streamed one (-1 while not seen there); a finding only
+     * the streamed report has is added with {@code indexedSide} false.
+     */
+    private static final class FindingIndex {
+        private final Map<String, Integer> internIds = new HashMap<>();
+        private final List<String> interned = new ArrayList<>();
+        private long[] keys = new long[1024];
+        private byte[] risks = new byte[1024];
+        private long[] lines = new long[1024];
+        private int[] namespaces = new int[1024];
+        private int[] testCases = new int[1024];
+        private boolean[] indexedSide = new boolean[1024];
+        private byte[] otherRisks = new byte[1024];
+        private long[] otherLines = new long[1024];
+        private int size;
+        private int indexedCount;
+
+        void put(long key, String namespace, String testCase, Risk risk, long line, boolean indexed) {
+            int slot = find(key);
+            if (slot >= 0) {
+                // the same finding twice in one report counts once, at its highest risk
+                if (risk.ordinal() > risks[slot]) risks[slot] = (byte) risk.ordinal();
+                return;
+            }
+            if ((size + 1) * 4 > keys.length * 3) {
+                grow();
+                slot = find(key);
+            }
+            slot = -slot - 1;
+            keys[slot] = key;
+            risks[slot] = (byte) risk.ordinal();
+            lines[slot] = line;
+            namespaces[slot] = intern(namespace);
+            testCases[slot] = intern(testCase);
+            indexedSide[slot] = indexed;
+            otherRisks[slot] = -1;
+            size++;
+            if (indexed) indexedCount++;
+        }
+
+        /**
+         * Slot of {@code key}, or -(free slot) - 1 when it is not in the table.
+         */
+        int find(long key) {
+            int mask = keys.length - 1;
+            for (int slot = (int) key & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) return slot;
+                if (keys[slot] == 0) return -slot - 1;
+            }
+        }
+
+        void changes(boolean indexNewer, Consumer<Change> listener) {
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] == 0) continue;
+                Risk risk = Risk.values()[risks[slot]];
+                String namespace = interned.get(namespaces[slot]);
+                String testCase = interned.get(testCases[slot]);
+                long line = lines[slot];
+                if (!indexedSide[slot]) {
+                    listener.accept(indexNewer
+                            ? new Change(ChangeType.REMOVED, namespace, testCase, risk, null, line, 0)
+                            : new Change(ChangeType.ADDED, namespace, testCase, null, risk, 0, line));
+                } else if (otherRisks[slot] < 0) {
+                    listener.accept(indexNewer
+                            ? new Change(ChangeType.ADDED, namespace, testCase, null, risk, 0, line)
+                            : new Change(ChangeType.REMOVED, namespace, testCase, risk, null, line, 0));
+                } else if (otherRisks[slot] != risks[slot]) {
+                    Risk other = Risk.values()[otherRisks[slot]];
+                    long otherLine = otherLines[slot];
+                    listener.accept(indexNewer
+                            ? new Change(ChangeType.CHANGED, namespace, testCase, other, risk, otherLine, line)
+                            : new Change(ChangeType.CHANGED, namespace, testCase, risk, other, line, otherLine));
+                }
+            }
+        }
+
+        private int intern(String value) {
+            Integer id = internIds.get(value);
+            if (id == null) {
+                id = interned.size();
+                internIds.put(value, id);
+                interned.add(value);
+            }
+            return id;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            byte[] oldRisks = risks;
+            long[] oldLines = lines;
+            int[] oldNamespaces = namespaces;
+            int[] oldTestCases = testCases;
+            boolean[] oldIndexedSide = indexedSide;
+            byte[] oldOtherRisks = otherRisks;
+            long[] oldOtherLines = otherLines;
+            int capacity = oldKeys.length * 2;
+            keys = new long[capacity];
+            risks = new byte[capacity];
+            lines = new long[capacity];
+            namespaces = new int[capacity];
+            testCases = new int[capacity];
+            indexedSide = new boolean[capacity];
+            otherRisks = new byte[capacity];
+            otherLines = new long[capacity];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == 0) continue;
+                int slot = -find(oldKeys[i]) - 1;
+                keys[slot] = oldKeys[i];
+                risks[slot] = oldRisks[i];
+                lines[slot] = oldLines[i];
+                namespaces[slot] = oldNamespaces[i];
+                testCases[slot] = oldTestCases[i];
+                indexedSide[slot] = oldIndexedSide[i];
+                otherRisks[slot] = oldOtherRisks[i];
+                otherLines[slot] = oldOtherLines[i];
+            }
+        }
+    }
+
+    public static class Change {
+        private final ChangeType type;
+        private final String namespace;
+        private final String testCase;
+        private final Risk before;
+        private final Risk after;
+        private final long olderLine;
+        private final long newerLine;
+
+        Change(ChangeType type, String namespace, String testCase, Risk before, Risk after, long olderLine, long newerLine) {
+            this.type = type;
+            this.namespace = namespace;
+            this.testCase = testCase;
+            this.before = before;
+            this.after = after;
+            this.olderLine = olderLine;
+            this.newerLine = newerLine;
+        }
+
+        public ChangeType getType() {
+            return type;
+        }
+
+        public String getNamespace() {
+            return namespace;
+        }
+
+        public String getTestCase() {
+            return testCase;
+        }
+
+        /**
+         * Risk in the older report, null for an added finding.
+         */
+        public Risk getBefore() {
+            return before;
+        }
+
+        /**
+         * Risk in the newer report, null for a removed finding.
+         */
+        public Risk getAfter() {
+            return after;
+        }
+
+        /**
+         * Line where the finding starts in the older report, 0 when it is not there.
+         */
+        public long getOlderLine() {
+            return olderLine;
+        }
+
+        /**
+         * Line where the finding starts in the newer report, 0 when it is not there.
+         */
+        public long getNewerLine() {
+            return newerLine;
+        }
+
+        @Override
+        public String toString() {
+            return switch (type) {
+                case ADDED -> "+ " + namespace + " '" + testCase + "' " + after;
+                case REMOVED -> "- " + namespace + " '" + testCase + "' " + before;
+                case CHANGED -> "~ " + namespace + " '" + testCase + "' " + before + " -> " + after;
+            };
+        }
+    }
+
+    public static class Result {
+        private final Map<ChangeType, Long> counts = new EnumMap<>(ChangeType.class);
+        private final List<Change> changes = new ArrayList<>();
+        private ReportSummary older;
+        private ReportSummary newer;
+        private int indexed;
+
+        /**
+         * Changes in no particular order; empty when the diff was run with a listener.
+         */
+        public List<Change> getChanges() {
+            return changes;
+        }
+
+        public long getCount(ChangeType type) {
+            return counts.getOrDefault(type, 0L);
+        }
+
+        public ReportSummary getOlder() {
+            return older;
+        }
+
+        public ReportSummary getNewer() {
+            return newer;
+        }
+
+        /**
+         * Distinct findings held in the index, i.e. those of the smaller report.
+         */
+        public int getIndexed() {
+            return indexed;
+        }
+
+        public List<String> getErrors() {
+            List<String> errors = new ArrayList<>(older.getErrors());
+            errors.addAll(newer.getErrors());
+            return errors;
+        }
+
+        public boolean isUnchanged() {
+            return counts.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "ReportDiff{" +
+                    "added=" + getCount(ChangeType.ADDED) +
+                    ", removed=" + getCount(ChangeType.REMOVED) +
+                    ", changed=" + getCount(ChangeType.CHANGED) +
+                    ", indexed=" + indexed +
+                    (getErrors().isEmpty() ? "" : ", errors=" + getErrors()) +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.appknox.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * What a streaming report validator keeps from a summary report (CSV or Excel): the header, row
+ * count, the File ID shared by all rows, counts per severity and per test case, and the problems
+ * found. The row checks live here so that both formats apply exactly the same rules, and two
+ * summaries of the same report can be compared with {@link #differencesFrom}.
+ */
+public class ReportSummary {
+    public static final List<String> REQUIRED_COLUMNS = List.of(
+            "Project ID", "Application Name", "Platform", "Version", "File ID", "Test Case", "Scan Type",
+            "Severity", "Risk Override", "CVSS Score", "Findings", "Description", "Created On");
+    public static final Set<String> SEVERITIES = Set.of("Critical", "High", "Medium", "Low", "Passed", "Untested");
+    private static final int MAX_REPORTED_ERRORS = 50;
+
+    private final String format;
+    private List<String> columns = List.of();
+    private int fileIdColumn = -1;
+    private int testCaseColumn = -1;
+    private int severityColumn = -1;
+    private int overrideColumn = -1;
+    private int cvssColumn = -1;
+    private long rows;
+    private String fileId;
+    private final Map<String, Long> severityCounts = new LinkedHashMap<>();
+    private final Map<String, Long> effectiveSeverityCounts = new LinkedHashMap<>();
+    private final Map<String, Long> testCaseCounts = new LinkedHashMap<>();
+    private final Map<String, CicheckDifferential.Risk> findings = new LinkedHashMap<>();
+    private final List<String> errors = new ArrayList<>();
+    private long errorCount;
+
+    ReportSummary(String format, String expectedFileId) {
+        this.format = format;
+        this.fileId = expectedFileId;
+    }
+
+    void header(List<String> header, List<String> requiredColumns) {
+        columns = List.copyOf(header);
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            if (index.putIfAbsent(columns.get(i), i) != null) {
+                error(1, "Duplicate column '" + columns.get(i) + "'");
+            }
+        }
+        for (String column : requiredColumns) {
+            if (!index.containsKey(column)) error(1, "Missing column '" + column + "'");
+        }
+        fileIdColumn = index.getOrDefault("File ID", -1);
+        testCaseColumn = index.getOrDefault("Test Case", -1);
+        severityColumn = index.getOrDefault("Severity", -1);
+        overrideColumn = index.getOrDefault("Risk Override", -1);
+        cvssColumn = index.getOrDefault("CVSS Score", -1);
+    }
+
+    /**
+     * Column indexes a row check reads; a validator only needs to keep these cells of a row.
+     */
+    Set<Integer> checkedColumns() {
+        Set<Integer> checked = new HashSet<>();
+        for (int column : new int[]{fileIdColumn, testCaseColumn, severityColumn, overrideColumn, cvssColumn}) {
+            if (column >= 0) checked.add(column);
+        }
+        return checked;
+    }
+
+    /**
+     * Checks one data row; missing cells (null or beyond the end of {@code cells}) count as empty.
+     */
+    void row(long line, List<String> cells) {
+        rows++;
+        if (fileIdColumn >= 0) {
+            String value = cell(cells, fileIdColumn);
+            if (fileId == null) fileId = value;
+            if (!value.equals(fileId)) {
+                error(line, "File ID " + value + " differs from " + fileId);
+            }
+        }
+        if (severityColumn >= 0) {
+            String severity = cell(cells, severityColumn);
+            if (SEVERITIES.contains(severity)) {
+                severityCounts.merge(severity, 1L, Long::sum);
+            } else {
+                error(line, "Unknown severity '" + severity + "'");
+            }
+        }
+        String override = overrideColumn >= 0 ? cell(cells, overrideColumn) : "";
+        if (!override.isEmpty() && !SEVERITIES.contains(override)) {
+            error(line, "Unknown risk override '" + override + "'");
+        }
+        if (severityColumn >= 0) {
+            String effective = override.isEmpty() ? cell(cells, severityColumn) : override;
+            if (SEVERITIES.contains(effective)) effectiveSeverityCounts.merge(effective, 1L, Long::sum);
+        }
+        if (cvssColumn >= 0 && !isCvssScore(cell(cells, cvssColumn))) {
+            error(line, "CVSS Score '" + cell(cells, cvssColumn) + "' is not between 0.0 and 10.0");
+        }
+        if (testCaseColumn >= 0) {
+            testCaseCounts.merge(cell(cells, testCaseColumn), 1L, Long::sum);
+        }
+        CicheckDifferential.Risk risk = risk(cells);
+        if (testCaseColumn >= 0 && risk != null) {
+            findings.merge(cell(cells, testCaseColumn), risk, (a, b) -> a.compareTo(b) >= 0 ? a : b);
+        }
+    }
+
+    /**
+     * Risk of a row after any risk override, null for Passed and Untested rows.
+     */
+    CicheckDifferential.Risk risk(List<String> cells) {
+        if (severityColumn < 0) return null;
+        String override = overrideColumn >= 0 ? cell(cells, overrideColumn) : "";
+        return CicheckDifferential.Risk.parse(override.isEmpty() ? cell(cells, severityColumn) : override);
+    }
+
+    void error(long line, String message) {
+        errorCount++;
+        if (errors.size() < MAX_REPORTED_ERRORS) errors.add(format + " line " + line + ": " + message);
+    }
+
+    private static String cell(List<String> cells, int index) {
+        String value = index < cells.size() ? cells.get(index) : null;
+        return value != null ? value : "";
+    }
+
+    private static boolean isCvssScore(String value) {
+        if (value.isEmpty()) return true;
+        try {
+            double score = Double.parseDouble(value);
+            return score >= 0.0 && score <= 10.0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * How this summary disagrees with another export of the same report: columns, row count,
+     * File ID, severity distribution and per-test-case counts. Empty when they agree.
+     */
+    public List<String> differencesFrom(ReportSummary other) {
+        List<String> differences = new ArrayList<>();
+        if (!columns.equals(other.columns)) {
+            differences.add("columns: " + format + "=" + columns + ", " + other.format + "=" + other.columns);
+        }
+        if (rows != other.rows) {
+            differences.add("rows: " + format + "=" + rows + ", " + other.format + "=" + other.rows);
+        }
+        if (!Objects.equals(fileId, other.fileId)) {
+            differences.add("File ID: " + format + "=" + fileId + ", " + other.format + "=" + other.fileId);
+        }
+        if (!severityCounts.equals(other.severityCounts)) {
+            differences.add("severities: " + format + "=" + severityCounts + ", " + other.format + "=" + other.severityCounts);
+        }
+        Set<String> testCases = new LinkedHashSet<>(testCaseCounts.keySet());
+        testCases.addAll(other.testCaseCounts.keySet());
+        for (String testCase : testCases) {
+            long mine = testCaseCounts.getOrDefault(testCase, 0L);
+            long theirs = other.testCaseCounts.getOrDefault(testCase, 0L);
+            if (mine != theirs) {
+                differences.add("test case '" + testCase + "': " + format + "=" + mine + ", " + other.format + "=" + theirs);
+            }
+        }
+        return differences;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * File ID shared by all rows (the expected one when given), null for a report without rows.
+     */
+    public String getFileId() {
+        return fileId;
+    }
+
+    public Map<String, Long> getSeverityCounts() {
+        return severityCounts;
+    }
+
+    public long getSeverityCount(String severity) {
+        return severityCounts.getOrDefault(severity, 0L);
+    }
+
+    /**
+     * Counts per severity after any risk override; rows with an unknown severity are not counted.
+     */
+    public Map<String, Long> getEffectiveSeverityCounts() {
+        return effectiveSeverityCounts;
+    }
+
+    public long getEffectiveSeverityCount(String severity) {
+        return effectiveSeverityCounts.getOrDefault(severity, 0L);
+    }
+
+    public Map<String, Long> getTestCaseCounts() {
+        return testCaseCounts;
+    }
+
+    /**
+     * Test cases that are findings (Low to Critical, after any risk override) with their risk;
+     * Passed and Untested rows are not included.
+     */
+    public Map<String, CicheckDifferential.Risk> getFindings() {
+        return findings;
+    }
+
+    /**
+     * First 50 problems, each prefixed with the format and line (CSV) or row (Excel) number.
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public boolean isValid() {
+        return errorCount == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ReportSummary{" +
+                "format=" + format +
+                ", rows=" + rows +
+                ", columns=" + columns.size() +
+                ", fileId=" + fileId +
+                ", severities=" + severityCounts +
+                ", testCases=" + testCaseCounts.size() +
+                (errorCount == 0 ? "" : ", errors=" + errorCount + " " + errors) +
+                '}';
+    }
+}
@@ -0,0 +1,74 @@
+package com.appknox.core;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry and hedging settings for idempotent CLI subcommands.
+ *
+ * Only subcommands listed as idempotent (matched on {@link LatencyHistory#subcommandKey}, so
+ * "reports download" covers every download format) are ever retried or hedged; upload and
+ * reports create always run exactly once. Retries use exponential backoff with full jitter and
+ * only fire for transient failures: connectivity errors and throttling reported on the CLI's
+ * error line. cicheck is left off the default list: it exits non-zero whenever it lists findings.
+ */
+public class RetryPolicy {
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final Set<String> idempotentCommands;
+    private final double hedgeQuantile;
+
+    /**
+     * @param hedgeQuantile latency percentile (e.g. 0.95) after which a second identical invocation
+     *                      is launched, 0 disables hedging
+     */
+    public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis,
+                       Set<String> idempotentCommands, double hedgeQuantile) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.idempotentCommands = idempotentCommands;
+        this.hedgeQuantile = hedgeQuantile;
+    }
+
+    public boolean isIdempotent(List<String> command) {
+        String key = LatencyHistory.subcommandKey(command);
+        for (String idempotent : idempotentCommands) {
+            if (key.equals(idempotent) || key.startsWith(idempotent + " ")) return true;
+        }
+        return false;
+    }
+
+    /**
+     * The CLI ran and exited non-zero with an error line about throttling or connectivity. A run
+     * that timed out is not retried, so a command never waits for more than one command timeout.
+     */
+    public static boolean isTransient(CLIExecutor.CommandResult result) {
+        if (result.isSuccess() || result.isTimeout() || result.getExitCode() <= 0) return false;
+        String error = CircuitBreaker.errorLine(result.getOutput());
+        return error != null
+                && (HostRateLimiter.isThrottleMessage(error) || "host unreachable".equals(CircuitBreaker.classify(result)));
+    }
+
+    /**
+     * Full-jitter backoff before the given retry (1-based): uniform in [0, min(max, base * 2^(retry-1))].
+     */
+    public long backoffMillis(int retry) {
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(retry - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public double getHedgeQuantile() {
+        return hedgeQuantile;
+    }
+
+    public boolean isHedgingEnabled() {
+        return hedgeQuantile > 0;
+    }
+}
@@ -0,0 +1,341 @@
+package com.appknox.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validates the SARIF 2.1.0 report written by "appknox sarif" from a token stream, without
+ * building the JSON tree, and indexes it as rule -&gt; result counts.
+ *
+ * Checked: "version" is 2.1.0, every run has tool.driver with a name and rules with unique ids,
+ * every result has a ruleId defined by its run's rules, a known level and a message. Everything
+ * else (rule descriptions with embedded HTML, locations, fingerprints, ...) is skipped as it
+ * streams past, so memory depends on the number of rules, not the size of the file.
+ */
+public class SarifReportValidator {
+    public static final String VERSION = "2.1.0";
+    public static final Set<String> LEVELS = Set.of("none", "note", "warning", "error");
+    private static final int MAX_REPORTED_ERRORS = 50;
+
+    public Result validate(Path sarif) throws IOException {
+        try (Reader reader = Files.newBufferedReader(sarif, StandardCharsets.UTF_8)) {
+            return validate(reader);
+        }
+    }
+
+    public Result validate(Reader source) {
+        Result result = new Result();
+        JsonTokenReader json = new JsonTokenReader(source instanceof BufferedReader ? source : new BufferedReader(source));
+        try {
+            if (json.peek() != JsonTokenReader.Token.BEGIN_OBJECT) {
+                result.error(json.getLine(), "$", "Document is not a JSON object");
+                return result;
+            }
+            json.beginObject();
+            boolean runs = false;
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "version" -> {
+                        result.version = json.nextScalar();
+                        if (!VERSION.equals(result.version)) {
+                            result.error(json.getLine(), "$.version", "Expected " + VERSION + " but found " + result.version);
+                        }
+                    }
+                    case "runs" -> {
+                        runs = true;
+                        json.beginArray();
+                        for (int run = 0; json.hasNext(); run++) {
+                            readRun(json, "$.runs[" + run + "]", result);
+                        }
+                        json.endArray();
+                    }
+                    default -> json.skipValue();
+                }
+            }
+            json.endObject();
+            json.peek();
+            if (result.version == null) result.error(json.getLine(), "$", "Missing \"version\"");
+            if (!runs) result.error(json.getLine(), "$", "Missing \"runs\"");
+        } catch (IOException e) {
+            result.error(json.getLine(), "$", e.getMessage());
+        }
+        return result;
+    }
+
+    private void readRun(JsonTokenReader json, String path, Result result) throws IOException {
+        Set<String> ruleIds = new LinkedHashSet<>();
+        Map<String, Long> references = new LinkedHashMap<>();
+        boolean tool = false;
+
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "tool" -> {
+                    tool = true;
+                    readTool(json, path + ".tool", ruleIds, result);
+                }
+                case "results" -> {
+                    json.beginArray();
+                    for (int index = 0; json.hasNext(); index++) {
+                        readResult(json, path + ".results[" + index + "]", references, result);
+                    }
+                    json.endArray();
+                }
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+
+        if (!tool) result.error(json.getLine(), path, "Missing \"tool\"");
+        // results may come before the rules in the document, so references are resolved per run at its end
+        for (Map.Entry<String, Long> reference : references.entrySet()) {
+            if (!ruleIds.contains(reference.getKey())) {
+                result.error(json.getLine(), path, reference.getValue() + " result(s) reference undefined rule '"
+                        + reference.getKey() + "'");
+            }
+        }
+    }
+
+    private void readTool(JsonTokenReader json, String path, Set<String> ruleIds, Result result) throws IOException {
+        boolean driver = false;
+        json.beginObject();
+        while (json.hasNext()) {
+            if (!json.nextName().equals("driver")) {
+                json.skipValue();
+                continue;
+            }
+            driver = true;
+            boolean rules = false;
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "name" -> result.toolName = json.nextScalar();
+                    case "version" -> result.toolVersion = json.nextScalar();
+                    case "rules" -> {
+                        rules = true;
+                        json.beginArray();
+                        for (int index = 0; json.hasNext(); index++) {
+                            readRule(json, path + ".driver.rules[" + index + "]", ruleIds, result);
+                        }
+                        json.endArray();
+                    }
+                    default -> json.skipValue();
+                }
+            }
+            json.endObject();
+            if (result.toolName == null) result.error(json.getLine(), path + ".driver", "Missing \"name\"");
+            if (!rules) result.error(json.getLine(), path + ".driver", "Missing \"rules\"");
+        }
+        json.endObject();
+        if (!driver) result.error(json.getLine(), path, "Missing \"driver\"");
+    }
+
+    private void readRule(JsonTokenReader json, String path, Set<String> ruleIds, Result result) throws IOException {
+        String id = null;
+        String name = null;
+        String shortDescription = null;
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "id" -> id = json.nextScalar();
+                case "name" -> name = json.nextScalar();
+                case "shortDescription" -> shortDescription = readText(json);
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+
+        if (id == null) {
+            result.error(json.getLine(), path, "Rule without \"id\"");
+        } else if (!ruleIds.add(id)) {
+            result.error(json.getLine(), path, "Duplicate rule id '" + id + "'");
+        } else {
+            // results may have been indexed before their rule was read
+            Rule rule = result.rules.computeIfAbsent(id, Rule::new);
+            rule.name = name;
+            rule.shortDescription = shortDescription;
+        }
+    }
+
+    private void readResult(JsonTokenReader json, String path, Map<String, Long> references, Result result)
+            throws IOException {
+        String ruleId = null;
+        String level = null;
+        boolean message = false;
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "ruleId" -> ruleId = json.nextScalar();
+                case "level" -> level = json.nextScalar();
+                case "message" -> message = readText(json) != null;
+                default -> json.skipValue();
+            }
+        }
+        json.endObject();
+
+        result.results++;
+        // SARIF 2.1.0 section 3.27.10: a result without "level" is a warning
+        String effectiveLevel = level != null ? level : "warning";
+        if (!LEVELS.contains(effectiveLevel)) {
+            result.error(json.getLine(), path, "Unknown level '" + level + "'");
+        } else {
+            result.levelCounts.merge(effectiveLevel, 1L, Long::sum);
+        }
+        if (!message) result.error(json.getLine(), path, "Missing \"message.text\"");
+        if (ruleId == null) {
+            result.error(json.getLine(), path, "Result without \"ruleId\"");
+            return;
+        }
+        references.merge(ruleId, 1L, Long::sum);
+        Rule rule = result.rules.computeIfAbsent(ruleId, Rule::new);
+        rule.results++;
+        rule.levelCounts.merge(effectiveLevel, 1L, Long::sum);
+    }
+
+    /**
+     * The "text" of a message object such as shortDescription, or null when it has none.
+     */
+    private static String readText(JsonTokenReader json) throws IOException {
+        if (json.peek() != JsonTokenReader.Token.BEGIN_OBJECT) {
+            json.skipValue();
+            return null;
+        }
+        String text = null;
+        json.beginObject();
+        while (json.hasNext()) {
+            if (json.nextName().equals("text")) {
+                text = json.nextScalar();
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+        return text;
+    }
+
+    public static class Rule {
+        private final String id;
+        private String name;
+        private String shortDescription;
+        private long results;
+        private final Map<String, Long> levelCounts = new LinkedHashMap<>();
+
+        Rule(String id) {
+            this.id = id;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getShortDescription() {
+            return shortDescription;
+        }
+
+        public long getResults() {
+            return results;
+        }
+
+        public Map<String, Long> getLevelCounts() {
+            return levelCounts;
+        }
+
+        @Override
+        public String toString() {
+            return id + "=" + results;
+        }
+    }
+
+    public static class Result {
+        private String version;
+        private String toolName;
+        private String toolVersion;
+        private long results;
+        private final Map<String, Rule> rules = new LinkedHashMap<>();
+        private final Map<String, Long> levelCounts = new LinkedHashMap<>();
+        private final List<String> errors = new ArrayList<>();
+        private long errorCount;
+
+        private void error(long line, String path, String message) {
+            errorCount++;
+            if (errors.size() < MAX_REPORTED_ERRORS) errors.add("line " + line + " " + path + ": " + message);
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public String getToolName() {
+            return toolName;
+        }
+
+        public String getToolVersion() {
+            return toolVersion;
+        }
+
+        public long getResults() {
+            return results;
+        }
+
+        /**
+         * Rules by id in document order, each with the number of results referencing it.
+         */
+        public Map<String, Rule> getRules() {
+            return rules;
+        }
+
+        public long getResultCount(String ruleId) {
+            Rule rule = rules.get(ruleId);
+            return rule != null ? rule.getResults() : 0;
+        }
+
+        public Map<String, Long> getLevelCounts() {
+            return levelCounts;
+        }
+
+        public long getLevelCount(String level) {
+            return levelCounts.getOrDefault(level, 0L);
+        }
+
+        /**
+         * First 50 problems, each with its line and JSON path.
+         */
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        public long getErrorCount() {
+            return errorCount;
+        }
+
+        public boolean isValid() {
+            return errorCount == 0;
+        }
+
+        @Override
+        public String toString() {
+            return "SarifReport{" +
+                    "version=" + version +
+                    ", tool=" + toolName + " " + toolVersion +
+                    ", rules=" + rules.size() +
+                    ", results=" + results +
+                    ", levels=" + levelCounts +
+                    (errorCount == 0 ? "" : ", errors=" + errorCount + " " + errors) +
+                    '}';
+        }
+    }
+}
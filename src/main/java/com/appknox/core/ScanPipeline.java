@@ -0,0 +1,370 @@
+package com.appknox.core;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Runs many apps through upload -&gt; analyses ready -&gt; cicheck -&gt; reports create -&gt; report download.
+ *
+ * Every stage has its own bounded queue and worker count, so app B can upload while app A's report
+ * downloads, and a slow stage applies backpressure to the one before it instead of buffering
+ * everything. Per-stage metrics (throughput, busy time, queue depth) show where the bottleneck is.
+ * A failed app leaves the pipeline at the failing stage; the others carry on.
+ */
+public class ScanPipeline {
+    private static final AppJob POISON = new AppJob(null);
+
+    private final CLIExecutor executor;
+    private final String cliPath;
+    private final Map<String, String> env;
+    private final File outputDir;
+    private final String riskThreshold;
+    private final Duration analysesDeadline;
+    private final Duration reportDeadline;
+    private final ReadinessAwaiter awaiter;
+    private final int[] workers;
+    private final int queueCapacity;
+
+    /**
+     * @param workers worker count per stage in pipeline order: upload, analyses, cicheck, report, download
+     */
+    public ScanPipeline(CLIExecutor executor, String cliPath, Map<String, String> env, File outputDir,
+                        String riskThreshold, Duration analysesDeadline, Duration reportDeadline,
+                        ReadinessAwaiter awaiter, int[] workers, int queueCapacity) {
+        this.executor = executor;
+        this.cliPath = cliPath;
+        this.env = env;
+        this.outputDir = outputDir;
+        this.riskThreshold = riskThreshold;
+        this.analysesDeadline = analysesDeadline;
+        this.reportDeadline = reportDeadline;
+        this.awaiter = awaiter;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+    }
+
+    public PipelineResult run(List<Path> apps) throws InterruptedException {
+        List<Stage> stages = List.of(
+                new Stage("upload", workers[0], queueCapacity, this::upload),
+                new Stage("analyses", workers[1], queueCapacity, this::awaitAnalyses),
+                new Stage("cicheck", workers[2], queueCapacity, this::cicheck),
+                new Stage("report", workers[3], queueCapacity, this::createReport),
+                new Stage("download", workers[4], queueCapacity, this::download));
+        List<AppJob> finished = Collections.synchronizedList(new ArrayList<>());
+        long start = System.nanoTime();
+
+        for (int i = 0; i < stages.size(); i++) {
+            Stage next = i + 1 < stages.size() ? stages.get(i + 1) : null;
+            stages.get(i).start(next, finished);
+        }
+
+        Stage first = stages.get(0);
+        for (Path app : apps) {
+            first.offer(new AppJob(app));
+        }
+        for (int i = 0; i < first.workers; i++) {
+            first.queue.put(POISON);
+        }
+        for (Stage stage : stages) {
+            stage.done.await();
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        List<StageMetrics> metrics = new ArrayList<>();
+        for (Stage stage : stages) {
+            metrics.add(stage.metrics(elapsedMillis));
+        }
+        return new PipelineResult(new ArrayList<>(finished), metrics, elapsedMillis);
+    }
+
+    // ---------- Stage bodies, each returns null on success or an error message ----------
+
+    private String upload(AppJob job) {
+        CLIExecutor.CommandResult result = executor.executeCommand(List.of(cliPath, "upload", job.app.toString()), env);
+        job.fileId = result.isSuccess() ? BatchUploader.extractFileId(result.getOutput()) : null;
+        return job.fileId != null ? null : "upload failed: " + result.getOutput();
+    }
+
+    private String awaitAnalyses(AppJob job) {
+        ReadinessAwaiter.AwaitResult ready = awaiter.awaitAnalysesComplete(job.fileId, analysesDeadline);
+        return ready.isReady() ? null : "analyses not ready: " + ready;
+    }
+
+    private String cicheck(AppJob job) {
+        CLIExecutor.CommandResult result = executor.executeCommand(
+                List.of(cliPath, "cicheck", job.fileId, "--risk-threshold", riskThreshold), env);
+        job.cicheck = result;
+        // cicheck exits non-zero when findings reach the threshold and then prints its RISK table;
+        // a non-zero exit without the table means it could not run
+        if (result.isSuccess() || CicheckDifferential.listsFindings(result.getOutput())) return null;
+        String cause = CircuitBreaker.classify(result);
+        return "cicheck " + (cause != null ? cause : result.isTimeout() ? "timed out" : "failed") + ": " + result.getOutput();
+    }
+
+    private String createReport(AppJob job) {
+        CLIExecutor.CommandResult result = executor.executeCommand(List.of(cliPath, "reports", "create", job.fileId), env);
+        job.reportId = result.isSuccess() ? CliTable.idField(result.getOutput()) : null;
+        return job.reportId != null ? null : "reports create failed: " + result.getOutput();
+    }
+
+    private String download(AppJob job) {
+        outputDir.mkdirs();
+        File report = new File(outputDir, "report_" + job.fileId + ".csv");
+        ReadinessAwaiter.AwaitResult ready = awaiter.awaitReportReady(job.reportId, report, reportDeadline);
+        job.reportFile = ready.isReady() ? report : null;
+        return ready.isReady() ? null : "report download failed: " + ready;
+    }
+
+    private static class Stage {
+        private final String name;
+        private final int workers;
+        private final BlockingQueue<AppJob> queue;
+        private final Function<AppJob, String> body;
+        private final CountDownLatch done;
+        private final AtomicInteger running;
+        private final AtomicInteger processed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicLong busyNanos = new AtomicLong();
+        private final AtomicInteger maxQueueDepth = new AtomicInteger();
+        private final AtomicLong queueDepthSum = new AtomicLong();
+        private final AtomicInteger queueDepthSamples = new AtomicInteger();
+
+        Stage(String name, int workers, int queueCapacity, Function<AppJob, String> body) {
+            this.name = name;
+            this.workers = workers;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.body = body;
+            this.done = new CountDownLatch(workers);
+            this.running = new AtomicInteger(workers);
+        }
+
+        void offer(AppJob job) throws InterruptedException {
+            queue.put(job);
+            int depth = queue.size();
+            maxQueueDepth.accumulateAndGet(depth, Math::max);
+            queueDepthSum.addAndGet(depth);
+            queueDepthSamples.incrementAndGet();
+        }
+
+        void start(Stage next, List<AppJob> finished) {
+            for (int i = 0; i < workers; i++) {
+                Thread.ofVirtual().name("pipeline-" + name + "-" + i).start(() -> work(next, finished));
+            }
+        }
+
+        private void work(Stage next, List<AppJob> finished) {
+            try {
+                while (true) {
+                    AppJob job = queue.take();
+                    if (job == POISON) break;
+
+                    long start = System.nanoTime();
+                    String error;
+                    try {
+                        error = body.apply(job);
+                    } catch (RuntimeException e) {
+                        error = name + " threw " + e;
+                    }
+                    long took = System.nanoTime() - start;
+                    busyNanos.addAndGet(took);
+                    job.stageMillis.put(name, took / 1_000_000);
+                    processed.incrementAndGet();
+
+                    if (error != null) {
+                        failed.incrementAndGet();
+                        job.failedStage = name;
+                        job.error = error;
+                        finished.add(job);
+                    } else if (next != null) {
+                        next.offer(job);
+                    } else {
+                        finished.add(job);
+                    }
+                }
+                // last worker out shuts down the next stage
+                if (running.decrementAndGet() == 0 && next != null) {
+                    for (int i = 0; i < next.workers; i++) {
+                        next.queue.put(POISON);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                done.countDown();
+            }
+        }
+
+        StageMetrics metrics(long elapsedMillis) {
+            int samples = queueDepthSamples.get();
+            return new StageMetrics(name, workers, processed.get(), failed.get(), busyNanos.get() / 1_000_000,
+                    elapsedMillis, maxQueueDepth.get(), samples == 0 ? 0 : (double) queueDepthSum.get() / samples);
+        }
+    }
+
+    public static class AppJob {
+        private final Path app;
+        private final Map<String, Long> stageMillis = new ConcurrentHashMap<>();
+        private volatile String fileId;
+        private volatile String reportId;
+        private volatile File reportFile;
+        private volatile CLIExecutor.CommandResult cicheck;
+        private volatile String failedStage;
+        private volatile String error;
+
+        AppJob(Path app) {
+            this.app = app;
+        }
+
+        public Path getApp() {
+            return app;
+        }
+
+        public String getFileId() {
+            return fileId;
+        }
+
+        public String getReportId() {
+            return reportId;
+        }
+
+        public File getReportFile() {
+            return reportFile;
+        }
+
+        public CLIExecutor.CommandResult getCicheck() {
+            return cicheck;
+        }
+
+        public Map<String, Long> getStageMillis() {
+            return stageMillis;
+        }
+
+        public String getFailedStage() {
+            return failedStage;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return failedStage == null;
+        }
+
+        @Override
+        public String toString() {
+            return "AppJob{" +
+                    "app=" + app +
+                    ", fileId=" + fileId +
+                    ", reportId=" + reportId +
+                    ", stageMillis=" + stageMillis +
+                    (failedStage != null ? ", failedStage=" + failedStage + ", error='" + error + '\'' : "") +
+                    '}';
+        }
+    }
+
+    public static class StageMetrics {
+        private final String stage;
+        private final int workers;
+        private final int processed;
+        private final int failed;
+        private final long busyMillis;
+        private final long elapsedMillis;
+        private final int maxQueueDepth;
+        private final double avgQueueDepth;
+
+        public StageMetrics(String stage, int workers, int processed, int failed, long busyMillis,
+                            long elapsedMillis, int maxQueueDepth, double avgQueueDepth) {
+            this.stage = stage;
+            this.workers = workers;
+            this.processed = processed;
+            this.failed = failed;
+            this.busyMillis = busyMillis;
+            this.elapsedMillis = elapsedMillis;
+            this.maxQueueDepth = maxQueueDepth;
+            this.avgQueueDepth = avgQueueDepth;
+        }
+
+        public String getStage() {
+            return stage;
+        }
+
+        public int getProcessed() {
+            return processed;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public double getThroughputPerMinute() {
+            return elapsedMillis == 0 ? 0 : processed * 60_000.0 / elapsedMillis;
+        }
+
+        /**
+         * Fraction of the run the stage's workers were busy; the stage closest to 1 is the bottleneck.
+         */
+        public double getUtilization() {
+            return elapsedMillis == 0 ? 0 : (double) busyMillis / (elapsedMillis * (long) workers);
+        }
+
+        public int getMaxQueueDepth() {
+            return maxQueueDepth;
+        }
+
+        public double getAvgQueueDepth() {
+            return avgQueueDepth;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-9s workers=%d processed=%d failed=%d throughput=%.2f/min utilization=%.0f%% "
+                            + "queue(max=%d, avg=%.1f)", stage, workers, processed, failed, getThroughputPerMinute(),
+                    getUtilization() * 100, maxQueueDepth, avgQueueDepth);
+        }
+    }
+
+    public static class PipelineResult {
+        private final List<AppJob> jobs;
+        private final List<StageMetrics> stageMetrics;
+        private final long elapsedMillis;
+
+        public PipelineResult(List<AppJob> jobs, List<StageMetrics> stageMetrics, long elapsedMillis) {
+            this.jobs = jobs;
+            this.stageMetrics = stageMetrics;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public List<AppJob> getJobs() {
+            return jobs;
+        }
+
+        public List<StageMetrics> getStageMetrics() {
+            return stageMetrics;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder("Pipeline finished in " + elapsedMillis + " ms\n");
+            stageMetrics.forEach(metrics -> out.append(metrics).append('\n'));
+            jobs.forEach(job -> out.append(job).append('\n'));
+            return out.toString();
+        }
+    }
+}
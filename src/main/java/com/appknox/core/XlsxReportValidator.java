@@ -0,0 +1,322 @@
+package com.appknox.core;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Validates a summary Excel report ("appknox reports download summary-excel") with the same rules
+ * as {@link CsvReportValidator}, streaming the XLSX parts straight out of the zip with StAX.
+ *
+ * The workbook and its relationships locate the sheet, the sheet XML is read row by row keeping
+ * only the cells the row checks need, and the shared string table (if the file has one) is spooled
+ * to a temporary file with an offset index instead of being held as strings. The resulting
+ * {@link ReportSummary} can be compared with the CSV export of the same report.
+ */
+public class XlsxReportValidator {
+    private static final String RELATIONSHIPS_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    private final String sheetName;
+    private final List<String> requiredColumns;
+
+    /**
+     * Validates the first sheet of the workbook.
+     */
+    public XlsxReportValidator() {
+        this(null, ReportSummary.REQUIRED_COLUMNS);
+    }
+
+    /**
+     * @param sheetName sheet that must exist and is validated, or null for the first sheet
+     */
+    public XlsxReportValidator(String sheetName, List<String> requiredColumns) {
+        this.sheetName = sheetName;
+        this.requiredColumns = requiredColumns;
+    }
+
+    public ReportSummary validate(Path xlsx) throws IOException {
+        return validate(xlsx, null);
+    }
+
+    public ReportSummary validate(Path xlsx, String expectedFileId) throws IOException {
+        ReportSummary summary = new ReportSummary("xlsx", expectedFileId);
+        try (ZipFile zip = new ZipFile(xlsx.toFile())) {
+            String sheetPath = sheetPath(zip, summary);
+            if (sheetPath == null) return summary;
+            ZipEntry sheet = zip.getEntry(sheetPath);
+            if (sheet == null) {
+                summary.error(0, "Sheet part " + sheetPath + " is missing from the archive");
+                return summary;
+            }
+            try (SharedStrings shared = SharedStrings.read(zip);
+                 InputStream in = zip.getInputStream(sheet)) {
+                readSheet(in, shared, summary);
+            }
+        } catch (XMLStreamException e) {
+            summary.error(e.getLocation() != null ? e.getLocation().getLineNumber() : 0, "Malformed XML: " + e.getMessage());
+        }
+        return summary;
+    }
+
+    // ---------- workbook ----------
+
+    /**
+     * Zip path of the sheet to validate, following xl/workbook.xml and its relationships.
+     */
+    private String sheetPath(ZipFile zip, ReportSummary summary) throws IOException, XMLStreamException {
+        Map<String, String> sheets = new LinkedHashMap<>();
+        try (InputStream in = open(zip, "xl/workbook.xml")) {
+            XMLStreamReader xml = newReader(in);
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT && xml.getLocalName().equals("sheet")) {
+                    sheets.put(xml.getAttributeValue(null, "name"), xml.getAttributeValue(RELATIONSHIPS_NS, "id"));
+                }
+            }
+            xml.close();
+        }
+        if (sheets.isEmpty()) {
+            summary.error(0, "Workbook has no sheets");
+            return null;
+        }
+        String relationId = sheetName != null ? sheets.get(sheetName) : sheets.values().iterator().next();
+        if (relationId == null) {
+            summary.error(0, "Missing sheet '" + sheetName + "', found " + sheets.keySet());
+            return null;
+        }
+
+        try (InputStream in = open(zip, "xl/_rels/workbook.xml.rels")) {
+            XMLStreamReader xml = newReader(in);
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT && xml.getLocalName().equals("Relationship")
+                        && relationId.equals(xml.getAttributeValue(null, "Id"))) {
+                    String target = xml.getAttributeValue(null, "Target");
+                    return target.startsWith("/") ? target.substring(1) : "xl/" + target;
+                }
+            }
+        }
+        summary.error(0, "No relationship " + relationId + " for the sheet");
+        return null;
+    }
+
+    // ---------- sheet ----------
+
+    private void readSheet(InputStream in, SharedStrings shared, ReportSummary summary)
+            throws IOException, XMLStreamException {
+        XMLStreamReader xml = newReader(in);
+        StringBuilder text = new StringBuilder();
+        List<String> cells = new ArrayList<>();
+        Set<Integer> checked = null;
+        long rowNumber = 0;
+        int column = -1;
+        String type = null;
+        boolean keep = false;
+        boolean capture = false;
+        int phonetic = 0;
+
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (xml.getLocalName()) {
+                    case "row" -> {
+                        String r = xml.getAttributeValue(null, "r");
+                        long number = r != null ? Long.parseLong(r) : rowNumber + 1;
+                        if (number <= rowNumber) summary.error(number, "Row " + number + " is out of order");
+                        rowNumber = number;
+                        cells.clear();
+                        column = -1;
+                    }
+                    case "c" -> {
+                        String ref = xml.getAttributeValue(null, "r");
+                        column = ref != null ? columnIndex(ref) : column + 1;
+                        type = xml.getAttributeValue(null, "t");
+                        keep = checked == null || checked.contains(column);
+                        text.setLength(0);
+                    }
+                    case "v", "t" -> capture = keep && phonetic == 0;
+                    case "rPh" -> phonetic++;
+                    default -> {
+                    }
+                }
+            } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                if (capture) text.append(xml.getTextCharacters(), xml.getTextStart(), xml.getTextLength());
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                switch (xml.getLocalName()) {
+                    case "v", "t" -> capture = false;
+                    case "rPh" -> phonetic--;
+                    case "c" -> {
+                        if (keep) {
+                            while (cells.size() <= column) cells.add(null);
+                            cells.set(column, cellValue(type, text, shared));
+                        }
+                        keep = false;
+                    }
+                    case "row" -> {
+                        if (checked == null) {
+                            List<String> header = new ArrayList<>();
+                            for (String cell : cells) header.add(cell != null ? cell : "");
+                            summary.header(header, requiredColumns);
+                            checked = summary.checkedColumns();
+                        } else if (cells.stream().anyMatch(cell -> cell != null && !cell.isEmpty())) {
+                            summary.row(rowNumber, cells);
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+        xml.close();
+        if (checked == null) summary.error(0, "Sheet has no rows");
+    }
+
+    private static String cellValue(String type, CharSequence text, SharedStrings shared) throws IOException {
+        if ("s".equals(type)) {
+            try {
+                return shared.get(Integer.parseInt(text.toString().trim()));
+            } catch (NumberFormatException e) {
+                return "";
+            }
+        }
+        String value = text.toString();
+        if (type == null || "n".equals(type)) {
+            // whole numbers are written as "59" in the CSV export but may be stored as "59.0" or "5.9E1"
+            try {
+                double number = Double.parseDouble(value);
+                if (number == Math.rint(number) && Math.abs(number) < 1e15) return Long.toString((long) number);
+            } catch (NumberFormatException e) {
+                return value;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Zero-based column of a cell reference such as "AE96".
+     */
+    static int columnIndex(String ref) {
+        int column = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char c = ref.charAt(i);
+            if (c < 'A' || c > 'Z') break;
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    private static InputStream open(ZipFile zip, String name) throws IOException {
+        ZipEntry entry = zip.getEntry(name);
+        if (entry == null) throw new IOException("Not an XLSX workbook, " + name + " is missing");
+        return zip.getInputStream(entry);
+    }
+
+    private static XMLStreamReader newReader(InputStream in) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory.createXMLStreamReader(in, StandardCharsets.UTF_8.name());
+    }
+
+    /**
+     * xl/sharedStrings.xml spooled to a temporary file as UTF-8, with the offset of every string.
+     */
+    private static final class SharedStrings implements AutoCloseable {
+        private final Path file;
+        private final FileChannel channel;
+        private final long[] offsets;
+        private final int count;
+
+        private SharedStrings(Path file, long[] offsets, int count) throws IOException {
+            this.file = file;
+            this.channel = file != null ? FileChannel.open(file, StandardOpenOption.READ) : null;
+            this.offsets = offsets;
+            this.count = count;
+        }
+
+        static SharedStrings read(ZipFile zip) throws IOException, XMLStreamException {
+            ZipEntry entry = zip.getEntry("xl/sharedStrings.xml");
+            if (entry == null) return new SharedStrings(null, new long[1], 0);
+
+            Path file = Files.createTempFile("shared-strings", ".bin");
+            long[] offsets = new long[1024];
+            int count = 0;
+            long position = 0;
+            try (InputStream in = zip.getInputStream(entry);
+                 OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                XMLStreamReader xml = newReader(in);
+                StringBuilder text = new StringBuilder();
+                boolean capture = false;
+                int phonetic = 0;
+                while (xml.hasNext()) {
+                    int event = xml.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        switch (xml.getLocalName()) {
+                            case "si" -> text.setLength(0);
+                            case "t" -> capture = phonetic == 0;
+                            case "rPh" -> phonetic++;
+                            default -> {
+                            }
+                        }
+                    } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                        if (capture) text.append(xml.getTextCharacters(), xml.getTextStart(), xml.getTextLength());
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        switch (xml.getLocalName()) {
+                            case "t" -> capture = false;
+                            case "rPh" -> phonetic--;
+                            case "si" -> {
+                                byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+                                out.write(bytes);
+                                if (count + 1 >= offsets.length) offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                                offsets[count++] = position;
+                                position += bytes.length;
+                            }
+                            default -> {
+                            }
+                        }
+                    }
+                }
+                xml.close();
+            } catch (IOException | XMLStreamException e) {
+                Files.deleteIfExists(file);
+                throw e;
+            }
+            offsets[count] = position;
+            return new SharedStrings(file, offsets, count);
+        }
+
+        String get(int index) throws IOException {
+            if (index < 0 || index >= count) return "";
+            ByteBuffer buffer = ByteBuffer.allocate((int) (offsets[index + 1] - offsets[index]));
+            long position = offsets[index];
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position + buffer.position());
+                if (read < 0) break;
+            }
+            return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel != null) channel.close();
+            if (file != null) Files.deleteIfExists(file);
+        }
+    }
+}
@@ -116,9 +116,27 @@ package com.config;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 
 public class ConfigManager {
+    private static final String SOURCE_CONFIG = "src/test/resources/config.properties";
+
     private static ConfigManager instance;
     private Properties properties;
 
@@ -158,8 +176,92 @@ public class ConfigManager {
         }
     }
 
+    // ---------- PROFILES ----------
+    /**
+     * Active profile from -Dappknox.profile or APPKNOX_PROFILE, null when running without profiles.
+     * Keys under "profile.&lt;name&gt;." override the plain keys (and the environment) for that profile.
+     */
+    public String getActiveProfile() {
+        String profile = System.getProperty("appknox.profile");
+        if (profile == null || profile.isEmpty()) {
+            profile = System.getenv("APPKNOX_PROFILE");
+        }
+        return profile == null || profile.isEmpty() ? null : profile;
+    }
+
+    public List<String> getProfiles() {
+        List<String> profiles = new ArrayList<>();
+        for (String profile : properties.getProperty("profiles", "").split(",")) {
+            if (!profile.isBlank()) profiles.add(profile.trim());
+        }
+        return profiles;
+    }
+
+    private String profileValue(String key) {
+        String profile = getActiveProfile();
+        return profile == null ? null : properties.getProperty("profile." + profile + "." + key);
+    }
+
+    private String profileKey(String key) {
+        String profile = getActiveProfile();
+        return profile == null ? key : "profile." + profile + "." + key;
+    }
+
+    /**
+     * Persist a value (e.g. a freshly uploaded file ID) for later tests and runs, scoped to the
+     * active profile. Writes the source config and the copy on the classpath so the next reload()
+     * sees it. Each file is replaced by an atomic move of a complete temp file, so a concurrent
+     * reload() reads either the old or the new config, never a partial one; a lock file in the
+     * temp directory keeps parallel profile JVMs from losing each other's updates.
+     */
+    public synchronized void storeProperty(String key, String value) {
+        String scopedKey = profileKey(key);
+        properties.setProperty(scopedKey, value);
+
+        Set<Path> targets = new LinkedHashSet<>();
+        targets.add(Paths.get(SOURCE_CONFIG).toAbsolutePath());
+        URL resource = getClass().getClassLoader().getResource("config.properties");
+        if (resource != null && "file".equals(resource.getProtocol())) {
+            try {
+                targets.add(Paths.get(resource.toURI()).toAbsolutePath());
+            } catch (URISyntaxException ignored) {
+            }
+        }
+
+        for (Path target : targets) {
+            if (!Files.exists(target)) continue;
+            Path lockFile = Paths.get(System.getProperty("java.io.tmpdir"),
+                    "appknox-config-" + Integer.toHexString(target.toString().hashCode()) + ".lock");
+            try (FileChannel lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                FileLock lock = lockChannel.lock();
+                try {
+                    Properties props = new Properties();
+                    try (InputStream input = Files.newInputStream(target)) {
+                        props.load(input);
+                    }
+                    props.setProperty(scopedKey, value);
+
+                    Path temp = Files.createTempFile(target.getParent(), "config", ".tmp");
+                    try (OutputStream output = Files.newOutputStream(temp)) {
+                        props.store(output, "Updated after " + key + " change");
+                    }
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to save " + scopedKey + " to " + target, e);
+            }
+        }
+    }
+
     // ---------- HOST ----------
     public String getValidHost() {
+        String profileHost = profileValue("appknox.api.host");
+        if (profileHost != null) {
+            return profileHost;
+        }
+
         String envHost = System.getenv("APPKNOX_API_HOST");
         if (envHost != null && !envHost.isEmpty()) {
             return envHost;
@@ -170,6 +272,11 @@ public class ConfigManager {
 
     // ---------- TOKEN ----------
     public String getValidToken() {
+        String profileToken = profileValue("appknox.access.token");
+        if (profileToken != null) {
+            return profileToken;
+        }
+
         String envToken = System.getenv("APPKNOX_ACCESS_TOKEN");
         if (envToken != null && !envToken.isEmpty()) {
             return envToken;
@@ -192,14 +299,282 @@ public class ConfigManager {
     }
 
     public String getCliPath() {
-        return properties.getProperty("appknox.cli.path", "appknox");
+        return getProperty("appknox.cli.path", "appknox");
     }
 
     public int getCommandTimeout() {
-        return Integer.parseInt(properties.getProperty("command.timeout", "60"));
+        return Integer.parseInt(getProperty("command.timeout", "60"));
+    }
+
+    // 0 disables /proc sampling of the CLI process
+    public long getResourceSampleInterval() {
+        return Long.parseLong(getProperty("command.sample.interval.ms", "0"));
+    }
+
+    // ---------- Rate limiting ----------
+    public boolean isRateLimitEnabled() {
+        return Boolean.parseBoolean(getProperty("ratelimit.enabled", "false"));
+    }
+
+    public double getRateLimitInitialRate() {
+        return Double.parseDouble(getProperty("ratelimit.initial.rate", "2"));
+    }
+
+    public double getRateLimitMinRate() {
+        return Double.parseDouble(getProperty("ratelimit.min.rate", "0.2"));
+    }
+
+    public double getRateLimitMaxRate() {
+        return Double.parseDouble(getProperty("ratelimit.max.rate", "20"));
+    }
+
+    // ---------- Circuit breaker ----------
+    // 0 disables the breaker
+    public int getCircuitBreakerThreshold() {
+        return Integer.parseInt(getProperty("circuitbreaker.failure.threshold", "0"));
+    }
+
+    public long getCircuitBreakerOpenMillis() {
+        return Long.parseLong(getProperty("circuitbreaker.open.ms", "30000"));
+    }
+
+    public boolean isPreflightEnabled() {
+        return Boolean.parseBoolean(getProperty("preflight.enabled", "true"));
+    }
+
+    // ---------- Adaptive timeouts ----------
+    public boolean isAdaptiveTimeoutEnabled() {
+        return Boolean.parseBoolean(getProperty("timeout.adaptive.enabled", "false"));
+    }
+
+    public String getLatencyHistoryPath() {
+        return getProperty("timeout.history.path", ".cache/latency-history.properties");
+    }
+
+    public int getAdaptiveTimeoutMinSamples() {
+        return Integer.parseInt(getProperty("timeout.adaptive.min.samples", "10"));
+    }
+
+    public double getAdaptiveTimeoutSafetyFactor() {
+        return Double.parseDouble(getProperty("timeout.adaptive.safety.factor", "3"));
+    }
+
+    public long getAdaptiveTimeoutMinMillis() {
+        return Long.parseLong(getProperty("timeout.adaptive.min.ms", "5000"));
+    }
+
+    public long getAdaptiveTimeoutMaxMillis() {
+        return Long.parseLong(getProperty("timeout.adaptive.max.ms", "900000"));
+    }
+
+    // ---------- Retries ----------
+    // 1 disables retries
+    public int getRetryMaxAttempts() {
+        return Integer.parseInt(getProperty("retry.max.attempts", "1"));
+    }
+
+    public long getRetryBaseDelayMillis() {
+        return Long.parseLong(getProperty("retry.base.delay.ms", "500"));
+    }
+
+    public long getRetryMaxDelayMillis() {
+        return Long.parseLong(getProperty("retry.max.delay.ms", "8000"));
+    }
+
+    public Set<String> getIdempotentCommands() {
+        String commands = getProperty("retry.idempotent.commands",
+                "whoami,organizations,projects,files,analyses,vulnerability,owasp,sarif,reports download");
+        Set<String> result = new LinkedHashSet<>();
+        for (String command : commands.split(",")) {
+            if (!command.isBlank()) result.add(command.trim());
+        }
+        return result;
+    }
+
+    // 0 disables hedging
+    public double getHedgeQuantile() {
+        return Double.parseDouble(getProperty("retry.hedge.quantile", "0"));
+    }
+
+    // ---------- Readiness polling ----------
+    public long getAwaitInitialDelayMillis() {
+        return Long.parseLong(getProperty("await.initial.delay.ms", "1000"));
+    }
+
+    public long getAwaitMaxDelayMillis() {
+        return Long.parseLong(getProperty("await.max.delay.ms", "30000"));
+    }
+
+    public int getBatchUploadParallelism() {
+        return Integer.parseInt(getProperty("upload.batch.parallelism", "4"));
+    }
+
+    // ---------- Scan pipeline ----------
+    // worker count per stage: upload, analyses, cicheck, report, download
+    public int[] getPipelineWorkers() {
+        String[] values = getProperty("pipeline.workers", "2,4,2,2,2").split(",");
+        int[] workers = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            workers[i] = Integer.parseInt(values[i].trim());
+        }
+        return workers;
+    }
+
+    public int getPipelineQueueCapacity() {
+        return Integer.parseInt(getProperty("pipeline.queue.capacity", "8"));
+    }
+
+    public long getPipelineAnalysesDeadlineSeconds() {
+        return Long.parseLong(getProperty("pipeline.analyses.deadline.seconds", "1800"));
+    }
+
+    public long getPipelineReportDeadlineSeconds() {
+        return Long.parseLong(getProperty("pipeline.report.deadline.seconds", "300"));
+    }
+
+    // ---------- Distributed execution ----------
+    public int getDistributedWorkers() {
+        return Integer.parseInt(getProperty("distributed.workers", "3"));
+    }
+
+    public int getDistributedSlotsPerWorker() {
+        return Integer.parseInt(getProperty("distributed.slots.per.worker", "2"));
+    }
+
+    // ---------- CICHECK ----------
+    /**
+     * Risk thresholds actually executed to verify the findings derived from the low run. One spot
+     * check by default; list more (e.g. "medium,high,critical") for a full verification, or none.
+     */
+    public Set<String> getCicheckVerifyThresholds() {
+        Set<String> thresholds = new LinkedHashSet<>();
+        for (String threshold : getProperty("cicheck.verify.thresholds", "critical").split(",")) {
+            if (!threshold.isBlank()) thresholds.add(threshold.trim());
+        }
+        return thresholds;
+    }
+
+    // ---------- INVENTORY ----------
+    public int getInventoryParallelism() {
+        return Integer.parseInt(getProperty("inventory.parallelism", "8"));
+    }
+
+    public String getInventoryCacheDir() {
+        return getProperty("inventory.cache.dir", ".cache/inventory");
+    }
+
+    public String getInventoryIndexPath() {
+        return getProperty("inventory.index.path", ".cache/inventory-index.tsv");
+    }
+
+    /**
+     * Cache TTL for one crawl level: projects, files or analyses.
+     */
+    public long getInventoryTtlSeconds(String level) {
+        return Long.parseLong(getProperty("inventory.ttl." + level + ".seconds", "300"));
+    }
+
+    // ---------- HOME SANDBOX ----------
+    public boolean isHomeSandboxEnabled() {
+        return Boolean.parseBoolean(getProperty("sandbox.home.enabled", "false"));
+    }
+
+    /**
+     * "profile" shares one home per host + token, "invocation" gives every call a fresh one.
+     */
+    public String getHomeSandboxScope() {
+        return getProperty("sandbox.home.scope", "profile");
+    }
+
+    public int getHomeSandboxPrewarm() {
+        return Integer.parseInt(getProperty("sandbox.home.prewarm", "4"));
+    }
+
+    /**
+     * Directory the sandbox homes are created in, empty for a fresh temp directory per JVM.
+     */
+    public String getHomeSandboxRoot() {
+        return getProperty("sandbox.home.root", "");
+    }
+
+    // ---------- MATRIX ----------
+    /**
+     * Test classes (or Class#method) each matrix cell runs, comma separated.
+     */
+    public List<String> getMatrixSelection() {
+        List<String> selection = new ArrayList<>();
+        for (String entry : getProperty("matrix.select", "com.appknox.tests.TestSuite").split(",")) {
+            if (!entry.isBlank()) selection.add(entry.trim());
+        }
+        return selection;
+    }
+
+    public long getMatrixTimeoutMillis() {
+        return Long.parseLong(getProperty("matrix.timeout.ms", "3600000"));
+    }
+
+    /**
+     * CLI binaries to compare as "label=path" pairs, comma separated; the first one is the baseline.
+     * Defaults to the configured appknox.cli.path only.
+     */
+    public Map<String, String> getCliMatrixBinaries() {
+        Map<String, String> binaries = new LinkedHashMap<>();
+        for (String entry : getProperty("cli.matrix.binaries", "").split(",")) {
+            if (entry.isBlank()) continue;
+            int separator = entry.indexOf('=');
+            String label = separator > 0 ? entry.substring(0, separator).trim() : entry.trim();
+            binaries.put(label, separator > 0 ? entry.substring(separator + 1).trim() : entry.trim());
+        }
+        if (binaries.isEmpty()) binaries.put("configured", getCliPath());
+        return binaries;
+    }
+
+    /**
+     * Commands compared across binaries, ';' separated; ${key} is replaced with that config value.
+     */
+    public List<List<String>> getCliMatrixCommands() {
+        List<List<String>> commands = new ArrayList<>();
+        String spec = getProperty("cli.matrix.commands", "whoami;organizations;projects;analyses ${test.file.id}");
+        for (String command : spec.split(";")) {
+            if (command.isBlank()) continue;
+            List<String> args = new ArrayList<>();
+            for (String arg : command.trim().split("\\s+")) {
+                if (arg.startsWith("${") && arg.endsWith("}")) {
+                    arg = getProperty(arg.substring(2, arg.length() - 1), arg);
+                }
+                args.add(arg);
+            }
+            commands.add(args);
+        }
+        return commands;
+    }
+
+    public int getCliMatrixRepetitions() {
+        return Integer.parseInt(getProperty("cli.matrix.repetitions", "5"));
+    }
+
+    /**
+     * Binaries the version matrix runs commands on at once.
+     */
+    public int getCliMatrixParallelism() {
+        return Integer.parseInt(getProperty("cli.matrix.parallelism", "4"));
+    }
+
+    public double getCliMatrixLatencyRegressionFactor() {
+        return Double.parseDouble(getProperty("cli.matrix.latency.regression.factor", "1.5"));
+    }
+
+    // p95 is noisier than p50, so it gets its own, looser factor
+    public double getCliMatrixTailRegressionFactor() {
+        return Double.parseDouble(getProperty("cli.matrix.tail.regression.factor", "2.0"));
     }
 
     public String getProperty(String key, String defaultValue) {
+        String profileOverride = profileValue(key);
+        if (profileOverride != null) {
+            return profileOverride;
+        }
+
         String envKey = key.toUpperCase().replace(".", "_");
         String envValue = System.getenv(envKey);
         if (envValue != null && !envValue.isEmpty()) {
@@ -2,10 +2,20 @@ package com.appknox.tests;
 
 import com.config.ConfigManager;
 import com.appknox.core.CLIExecutor;
+import com.appknox.core.CircuitBreaker;
+import com.appknox.core.HomeSandboxPool;
+import com.appknox.core.LatencyHistory;
+import com.appknox.core.PhraseMatcher;
+import com.appknox.core.ReadinessAwaiter;
+import com.appknox.core.RetryPolicy;
+import io.qameta.allure.Allure;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -14,17 +24,102 @@ import java.util.Map;
 public class BaseTest {
     protected static ConfigManager config;
     protected static CLIExecutor cliExecutor;
+    private static boolean preflightDone;
+    private static LatencyHistory latencyHistory;
+    private static HomeSandboxPool homeSandbox;
 
     @BeforeAll
     public static void setupBase() {
         config = ConfigManager.getInstance();
-        cliExecutor = new CLIExecutor(config.getCommandTimeout());
+        cliExecutor = new CLIExecutor(config.getCommandTimeout(), config.getResourceSampleInterval());
+        if (config.isRateLimitEnabled()) {
+            cliExecutor.withRateLimit(config.getRateLimitInitialRate(),
+                    config.getRateLimitMinRate(), config.getRateLimitMaxRate());
+        }
+        if (config.isAdaptiveTimeoutEnabled()) {
+            cliExecutor.withLatencyHistory(latencyHistory());
+        }
+        if (config.getRetryMaxAttempts() > 1 || config.getHedgeQuantile() > 0) {
+            cliExecutor.withRetryPolicy(new RetryPolicy(config.getRetryMaxAttempts(),
+                    config.getRetryBaseDelayMillis(), config.getRetryMaxDelayMillis(),
+                    config.getIdempotentCommands(), config.getHedgeQuantile()));
+        }
+        if (config.isHomeSandboxEnabled()) {
+            cliExecutor.withHomeSandbox(homeSandbox());
+        }
+        if (config.getCircuitBreakerThreshold() > 0) {
+            cliExecutor.withCircuitBreaker(config.getCircuitBreakerThreshold(), config.getCircuitBreakerOpenMillis());
+            preflight();
+        }
+    }
+
+    // One history per JVM, flushed to disk when the test run ends
+    private static synchronized LatencyHistory latencyHistory() {
+        if (latencyHistory == null) {
+            LatencyHistory history = new LatencyHistory(Paths.get(config.getLatencyHistoryPath()),
+                    config.getAdaptiveTimeoutMinSamples(), config.getAdaptiveTimeoutSafetyFactor(),
+                    config.getAdaptiveTimeoutMinMillis(), config.getAdaptiveTimeoutMaxMillis());
+            Runtime.getRuntime().addShutdownHook(new Thread(history::save));
+            latencyHistory = history;
+        }
+        return latencyHistory;
+    }
+
+    // One pool of sandbox homes per JVM, deleted when the test run ends
+    protected static synchronized HomeSandboxPool homeSandbox() {
+        if (homeSandbox == null) {
+            try {
+                // the pool works in (and deletes) a directory of its own inside root
+                Path root = Paths.get(config.getHomeSandboxRoot().isEmpty()
+                        ? System.getProperty("java.io.tmpdir") : config.getHomeSandboxRoot());
+                HomeSandboxPool pool = new HomeSandboxPool(root,
+                        HomeSandboxPool.Scope.valueOf(config.getHomeSandboxScope().toUpperCase()),
+                        config.getHomeSandboxPrewarm());
+                Runtime.getRuntime().addShutdownHook(new Thread(pool::close));
+                homeSandbox = pool;
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not create CLI home sandbox", e);
+            }
+        }
+        return homeSandbox;
+    }
+
+    // Probe the configured host and token once per JVM so a dead host or expired token
+    // opens the circuit before the first test spends a full timeout on it
+    private static synchronized void preflight() {
+        if (preflightDone || !config.isPreflightEnabled()) return;
+        preflightDone = true;
+
+        String host = config.getValidHost();
+        String token = config.getValidToken();
+        CLIExecutor.CommandResult result = cliExecutor.executeCommand(
+                List.of(config.getCliPath(), "whoami"),
+                Map.of("APPKNOX_API_HOST", host == null ? "" : host,
+                        "APPKNOX_ACCESS_TOKEN", token == null ? "" : token));
+
+        String cause = CircuitBreaker.classify(result);
+        if (cause != null) {
+            CircuitBreaker.forCredentials(host, token, config.getCircuitBreakerThreshold(),
+                    config.getCircuitBreakerOpenMillis()).forceOpen("preflight whoami failed, " + cause);
+            System.err.println("Preflight failed (" + cause + "): " + result.getOutput());
+        }
+        Allure.addAttachment("Preflight whoami", result.toString());
     }
        @BeforeEach
     public void refreshConfig() {
         config.reload();   
+        String profile = config.getActiveProfile();
+        if (profile != null) {
+            Allure.label("profile", profile);
+            Allure.parameter("profile", profile);
+        }
     }
     protected CLIExecutor.CommandResult runAppknoxCommand(String command,String host,String token) 
+    {
+        return runAppknoxCommand(command, host, token, null);
+    }
+
+    protected CLIExecutor.CommandResult runAppknoxCommand(String command, String host, String token, PhraseMatcher phrases)
     {
         List<String> cmdList = new ArrayList<>();
         cmdList.add(config.getCliPath());
@@ -38,7 +133,7 @@ public class BaseTest {
             env.put("APPKNOX_ACCESS_TOKEN", token);
         }
 
-        return cliExecutor.executeCommand(cmdList, env);
+        return cliExecutor.executeCommand(cmdList, env, phrases);
     }
 
     protected CLIExecutor.CommandResult runAppknoxCommand(String command) {
@@ -51,16 +146,23 @@ public class BaseTest {
         //  not set iin the command
     }
 
+    protected ReadinessAwaiter readinessAwaiter() {
+        return new ReadinessAwaiter(cliExecutor, config.getCliPath(),
+                Map.of("APPKNOX_API_HOST", config.getValidHost(), "APPKNOX_ACCESS_TOKEN", config.getValidToken()),
+                config.getAwaitInitialDelayMillis(), config.getAwaitMaxDelayMillis());
+    }
+
     protected void waitForNonEmptyFile(File file, int timeoutSec) throws InterruptedException {
-    int waited = 0;
-    while (waited < timeoutSec) {
+    long deadline = System.currentTimeMillis() + timeoutSec * 1000L;
+    long delay = 50;
+    while (System.currentTimeMillis() < deadline) {
         if (file.exists() && file.length() > 0) return;
-        Thread.sleep(1000);
-        waited++;
+        Thread.sleep(delay);
+        delay = Math.min(1000, delay * 2);
     }
+    if (file.exists() && file.length() > 0) return;
     throw new AssertionError("File not generated within timeout: " + file.getAbsolutePath());
 }
 
 
 }
-
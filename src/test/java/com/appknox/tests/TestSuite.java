@@ -7,6 +7,7 @@ import com.appknox.tests.cicheck.CICheckTests;
 import com.appknox.tests.reports.ReportTests;
 import com.appknox.tests.analyses.AnalysesTests;
 import com.appknox.tests.cliflags.CLIFlagsTests;
+import com.appknox.tests.network.NetworkFaultTests;
 
 import org.junit.platform.suite.api.SelectClasses;
 import org.junit.platform.suite.api.Suite;
@@ -21,7 +22,8 @@ import org.junit.platform.suite.api.SuiteDisplayName;
     AnalysesTests.class,      //4th - Analyses tests
     CICheckTests.class,         //5th - CI Check tests                  
     ReportTests.class,      //6th - Report tests                            
-    CLIFlagsTests.class     //7th - CLI Flags tests            
+    CLIFlagsTests.class,    //7th - CLI Flags tests            
+    NetworkFaultTests.class //8th - Network fault injection tests
 })
 public class TestSuite {
     
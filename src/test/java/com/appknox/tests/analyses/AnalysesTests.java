@@ -4,6 +4,7 @@ package com.appknox.tests.analyses;
 
 import com.appknox.tests.BaseTest;
 import com.appknox.core.CLIExecutor.CommandResult;
+import com.appknox.core.PhraseMatcher;
 import io.qameta.allure.*;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -57,12 +58,14 @@ public class AnalysesTests extends BaseTest {
                     "APPKNOX_ACCESS_TOKEN", config.getValidToken()
             );
 
-            CommandResult result = cliExecutor.executeCommand(cmdList, env);
+            CommandResult result = cliExecutor.executeCommand(cmdList, env,
+                    PhraseMatcher.expecting("are you sure", "are you sure"));
 
             assertThat(result.isSuccess()).isFalse()
                     .as("Command should fail with invalid file ID");
-            assertThat(result.getOutput().toLowerCase())
-                    .containsAnyOf("are you sure", "are you sure");
+            assertThat(result.getMatches().anyExpected())
+                    .as("Output should contain one of the expected phrases: " + result.getMatches())
+                    .isTrue();
 
             Allure.addAttachment("ANA-002 Output", result.getOutput());
         });
@@ -127,12 +130,14 @@ public class AnalysesTests extends BaseTest {
                     "APPKNOX_ACCESS_TOKEN", config.getValidToken()
             );
 
-            CommandResult result = cliExecutor.executeCommand(cmdList, env);
+            CommandResult result = cliExecutor.executeCommand(cmdList, env,
+                    PhraseMatcher.expecting("missing", "file_id", "required"));
 
             assertThat(result.isSuccess()).isFalse()
                     .as("Command should fail when file_id is missing");
-            assertThat(result.getOutput().toLowerCase())
-                    .containsAnyOf("missing", "file_id", "required");
+            assertThat(result.getMatches().anyExpected())
+                    .as("Output should contain one of the expected phrases: " + result.getMatches())
+                    .isTrue();
 
             Allure.addAttachment("ANA-005 Output", result.getOutput());
         });
@@ -3,7 +3,10 @@
 package com.appknox.tests.authentication;
 
 import com.appknox.tests.BaseTest;
+import com.appknox.core.CLIExecutor;
 import com.appknox.core.CLIExecutor.CommandResult;
+import com.appknox.core.HomeSandboxPool;
+import com.appknox.core.PhraseMatcher;
 import io.qameta.allure.*;
 
 import org.junit.jupiter.api.DisplayName;
@@ -11,8 +14,21 @@ import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
 @Epic("Appknox CLI Automation")
 @Feature("Authentication Module")
@@ -55,15 +71,16 @@ public class AuthenticationTests extends BaseTest {
         String invalidToken = config.getInvalidToken();
 
         step("Execute CLI command with invalid token", () -> {
-            CommandResult result = runAppknoxCommand("whoami", host, invalidToken);
+            CommandResult result = runAppknoxCommand("whoami", host, invalidToken,
+                    PhraseMatcher.expecting("invalid", "expired", "token", "unauthorized", "authentication"));
 
             assertThat(result.isSuccess())
                     .as("Command should fail with invalid token")
                     .isFalse();
 
-            assertThat(result.getOutput().toLowerCase())
-                    .as("Output should contain error message about invalid or expired token")
-                    .containsAnyOf("invalid", "expired", "token", "unauthorized", "authentication");
+            assertThat(result.getMatches().anyExpected())
+                    .as("Output should contain error message about invalid or expired token: " + result.getMatches())
+                    .isTrue();
 
             Allure.addAttachment("AUTH-002 Output", result.getOutput());
             
@@ -148,15 +165,16 @@ public void testMissingTokenAuthentication() {
         String token = config.getValidToken();
 
         step("Execute CLI command with invalid host", () -> {
-            CommandResult result = runAppknoxCommand("whoami", invalidHost, token);
+            CommandResult result = runAppknoxCommand("whoami", invalidHost, token,
+                    PhraseMatcher.expecting("unable to connect", "host", "connection", "failed", "error"));
 
             assertThat(result.isSuccess())
                     .as("Command should fail with invalid host")
                     .isFalse();
 
-            assertThat(result.getOutput().toLowerCase())
-                    .as("Output should contain host error message")
-                    .containsAnyOf("unable to connect", "host", "connection", "failed", "error");
+            assertThat(result.getMatches().anyExpected())
+                    .as("Output should contain host error message: " + result.getMatches())
+                    .isTrue();
 
             Allure.addAttachment("AUTH-005 Output", result.getOutput());
         });
@@ -186,6 +204,76 @@ public void testMissingTokenAuthentication() {
         });
     }
 
+    @Test
+    @Story("Concurrent Authentication Isolation")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Run valid-token and invalid-token whoami calls side by side, each credential in its own sandboxed HOME, and verify neither leaks into the other.")
+    @DisplayName("AUTH-007: Verify concurrent valid and invalid tokens do not interfere")
+    public void testConcurrentTokensIsolated() throws Exception {
+        String host = config.getValidHost();
+        Map<String, String> validEnv = Map.of("APPKNOX_API_HOST", host, "APPKNOX_ACCESS_TOKEN", config.getValidToken());
+        Map<String, String> invalidEnv = Map.of("APPKNOX_API_HOST", host, "APPKNOX_ACCESS_TOKEN", config.getInvalidToken());
+        List<String> whoami = List.of(config.getCliPath(), "whoami");
+
+        // a pool of its own with one home per credential, so each home can be inspected afterwards
+        try (HomeSandboxPool sandbox = new HomeSandboxPool(
+                Paths.get(System.getProperty("java.io.tmpdir")), HomeSandboxPool.Scope.PROFILE, 2)) {
+            CLIExecutor sandboxed = new CLIExecutor(config.getCommandTimeout()).withHomeSandbox(sandbox);
+
+            step("Execute valid and invalid token whoami concurrently", () -> {
+                List<Future<CommandResult>> valid = new ArrayList<>();
+                List<Future<CommandResult>> invalid = new ArrayList<>();
+                try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+                    for (int i = 0; i < 4; i++) {
+                        valid.add(pool.submit(() -> sandboxed.executeCommand(whoami, validEnv)));
+                        invalid.add(pool.submit(() -> sandboxed.executeCommand(whoami, invalidEnv)));
+                    }
+                    for (Future<CommandResult> result : valid) {
+                        assertThat(result.get().isSuccess())
+                                .as("Valid token should succeed next to invalid-token runs: " + result.get().getOutput())
+                                .isTrue();
+                    }
+                    for (Future<CommandResult> result : invalid) {
+                        assertThat(result.get().isSuccess())
+                                .as("Invalid token should fail next to valid-token runs")
+                                .isFalse();
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    throw new AssertionError("Concurrent whoami failed to run", e);
+                }
+            });
+
+            step("Verify each credential had its own HOME and nothing leaked between them", () -> {
+                Path validHome = sandbox.acquire(validEnv);
+                Path invalidHome = sandbox.acquire(invalidEnv);
+                Allure.addAttachment("AUTH-007 Sandbox Homes", validHome + "\n" + invalidHome);
+
+                assertThat(validHome).as("Homes per credential").isNotEqualTo(invalidHome);
+                assertThat(validHome.startsWith(sandbox.getRoot()) && invalidHome.startsWith(sandbox.getRoot()))
+                        .as("Homes live in the sandbox, not the user's HOME")
+                        .isTrue();
+                assertThat(filesMentioning(invalidHome, config.getValidToken()))
+                        .as("Valid token persisted in the invalid-token HOME")
+                        .isEmpty();
+                assertThat(filesMentioning(validHome, config.getInvalidToken()))
+                        .as("Invalid token persisted in the valid-token HOME")
+                        .isEmpty();
+            });
+        }
+    }
+
+    private static List<Path> filesMentioning(Path home, String text) {
+        try (Stream<Path> files = Files.walk(home)) {
+            List<Path> mentioning = new ArrayList<>();
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                if (Files.readString(file, StandardCharsets.ISO_8859_1).contains(text)) mentioning.add(file);
+            }
+            return mentioning;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @Step("{stepName}")
     private void step(String stepName, Runnable runnable) {
         runnable.run();
@@ -1,6 +1,10 @@
 package com.appknox.tests.cicheck;
 
 import com.appknox.tests.BaseTest;
+import com.appknox.core.CicheckDifferential;
+import com.appknox.core.CicheckDifferential.Finding;
+import com.appknox.core.CicheckDifferential.Risk;
+import com.appknox.core.CicheckDifferential.ThresholdCheck;
 import com.appknox.core.CLIExecutor.CommandResult;
 import io.qameta.allure.*;
 import org.junit.jupiter.api.DisplayName;
@@ -8,12 +12,11 @@ import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -22,27 +25,41 @@ import static org.assertj.core.api.Assertions.assertThat;
 @DisplayName("CI Check Test Suite")
 public class CICheckTests extends BaseTest {
 
+    private static CicheckDifferential.Result differential;
+
+    // One low-threshold cicheck for the whole class; the verified thresholds then run in parallel with each other
+    private static synchronized CicheckDifferential.Result differential() {
+        if (differential == null) {
+            Map<String, String> env = new HashMap<>();
+            env.put("APPKNOX_API_HOST", config.getValidHost());
+            env.put("APPKNOX_ACCESS_TOKEN", config.getValidToken());
+
+            Set<Risk> verify = EnumSet.noneOf(Risk.class);
+            for (String threshold : config.getCicheckVerifyThresholds()) {
+                verify.add(Risk.valueOf(threshold.toUpperCase()));
+            }
+            try {
+                differential = new CicheckDifferential(cliExecutor, config.getCliPath(), env)
+                        .run(config.getProperty("test.file.id", "1"), verify);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError("Interrupted while running cicheck", e);
+            }
+            System.out.println(differential);
+            Allure.addAttachment("cicheck Differential", differential.toString());
+        }
+        return differential;
+    }
+
     @Test
     @Story("Low Risk Threshold CI Check")
     @Severity(SeverityLevel.CRITICAL)
     @Description("Verify cicheck command displays all vulnerabilities when risk threshold is set to low.")
     @DisplayName("CIC-001: Verify cicheck with low risk threshold")
     public void testCICheckWithLowRiskThreshold() {
-        String fileId = config.getProperty("test.file.id", "1");
-
         step("Execute cicheck with low risk threshold", () -> {
-            List<String> cmdList = new ArrayList<>();
-            cmdList.add(config.getCliPath());
-            cmdList.add("cicheck");
-            cmdList.add(fileId);
-            cmdList.add("--risk-threshold");
-            cmdList.add("low");
-
-            Map<String, String> env = new HashMap<>();
-            env.put("APPKNOX_API_HOST", config.getValidHost());
-            env.put("APPKNOX_ACCESS_TOKEN", config.getValidToken());
-
-            CommandResult result = cliExecutor.executeCommand(cmdList, env);
+            ThresholdCheck check = differential().get(Risk.LOW);
+            CommandResult result = check.getResult();
 
             assertThat(result.isSuccess())
                     .as("CI check with low threshold should execute successfully")
@@ -51,198 +68,71 @@ public class CICheckTests extends BaseTest {
             assertThat(result.getOutput())
                     .as("Output should display all vulnerabilities")
                     .isNotEmpty();   
+
+            assertThat(check.getExpected())
+                    .as("Low threshold output should list findings with a RISK column")
+                    .isNotEmpty();
             Allure.addAttachment("CIC-001 Output", result.getOutput());
         });
     }
 
- 
-
-@Test
-@Story("Medium Risk Threshold CI Check")
-@Severity(SeverityLevel.CRITICAL)
-@Description("Verify cicheck displays medium, high, and critical vulnerabilities only.")
-@DisplayName("CIC-002: Verify cicheck with medium risk threshold")
-public void testCICheckWithMediumRiskThreshold() {
-    String fileId = config.getProperty("test.file.id", "1");
-
-    step("Execute cicheck with medium risk threshold", () -> {
-        List<String> cmdList = new ArrayList<>();
-        cmdList.add(config.getCliPath());
-        cmdList.add("cicheck");
-        cmdList.add(fileId);
-        cmdList.add("--risk-threshold");
-        cmdList.add("medium");
-
-        Map<String, String> env = new HashMap<>();
-        env.put("APPKNOX_API_HOST", config.getValidHost());
-        env.put("APPKNOX_ACCESS_TOKEN", config.getValidToken());
-
-        CommandResult result = cliExecutor.executeCommand(cmdList, env);
-
-        // Attach CLI Output to Allure
-        Allure.addAttachment("CIC-002 CLI Output", new ByteArrayInputStream(result.getOutput().getBytes()));
-
-        // Check command execution status
-        assertThat(result.isSuccess())
-                .as("CI check with medium threshold should execute successfully")
-                .isFalse();
-
-        String output = result.getOutput();
-        assertThat(output)
-                .as("Output should not be empty")
-                .isNotEmpty();
-
-        System.out.println("=== CLI Raw Output ===");
-        System.out.println(output);
-
-        //Extract risk levels from the CLI output
-        Pattern riskPattern = Pattern.compile("\\b(Low|Medium|High|Critical)\\b", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = riskPattern.matcher(output);
-        List<String> risksFound = new ArrayList<>();
-
-        while (matcher.find()) {
-            risksFound.add(matcher.group(1));
-        }
-
-        System.out.println("Extracted Risks: " + risksFound);
-        Allure.addAttachment("Extracted Risks", String.join(", ", risksFound));
-
-        //Allowed risks for medium threshold: Medium, High, Critical
-        Set<String> allowedRisks = Set.of("Medium", "High", "Critical");
-
-        //Validate all extracted risks are within allowed levels
-        for (String risk : risksFound) {
-            assertThat(allowedRisks)
-                    .as("Risk '" + risk + "' should not appear for medium threshold")
-                    .contains(risk);
-        }
-
-        System.out.println("Validation passed: Only Medium, High, and Critical risks are displayed.");
-    });
-}
-
-
     @Test
-@Story("High Risk Threshold CI Check")
-@Severity(SeverityLevel.CRITICAL)
-@Description("Verify cicheck displays high and critical vulnerabilities only.")
-@DisplayName("CIC-003: Verify cicheck with high risk threshold")
-public void testCICheckWithHighRiskThreshold() {
-    String fileId = config.getProperty("test.file.id", "1");
-
-    step("Execute cicheck with high risk threshold", () -> {
-        List<String> cmdList = new ArrayList<>();
-        cmdList.add(config.getCliPath());
-        cmdList.add("cicheck");
-        cmdList.add(fileId);
-        cmdList.add("--risk-threshold");
-        cmdList.add("high");
-
-        Map<String, String> env = new HashMap<>();
-        env.put("APPKNOX_API_HOST", config.getValidHost());
-        env.put("APPKNOX_ACCESS_TOKEN", config.getValidToken());
-
-        CommandResult result = cliExecutor.executeCommand(cmdList, env);
-
-        Allure.addAttachment("CIC-003 CLI Output", new ByteArrayInputStream(result.getOutput().getBytes()));
-
-        assertThat(result.isSuccess())
-                .as("CI check with high threshold should execute successfully")
-                .isFalse();
-
-        String output = result.getOutput();
-        assertThat(output)
-                .as("Output should not be empty")
-                .isNotEmpty();
-
-        //  Extract RISK column values (Low, Medium, High, Critical)
-        Pattern riskPattern = Pattern.compile("\\b(Low|Medium|High|Critical)\\b", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = riskPattern.matcher(output);
-        List<String> risksFound = new ArrayList<>();
-
-        while (matcher.find()) {
-            risksFound.add(matcher.group(1));
-        }
-
-        System.out.println("Extracted Risks: " + risksFound);
-        Allure.addAttachment("Extracted Risks", String.join(", ", risksFound));
-
-        //Allowed risks for 'high' threshold
-        Set<String> allowedRisks = Set.of("High", "Critical");
-
-        //Verify all risks are allowed
-        for (String risk : risksFound) {
-            assertThat(allowedRisks)
-                    .as("Risk '" + risk + "' should be allowed for high threshold")
-                    .contains(risk);
-        }
-
-        System.out.println("✅ Validation passed: Only High and Critical risks are displayed.");
-    });
-}
+    @Story("Medium Risk Threshold CI Check")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verify cicheck displays medium, high, and critical vulnerabilities only.")
+    @DisplayName("CIC-002: Verify cicheck with medium risk threshold")
+    public void testCICheckWithMediumRiskThreshold() {
+        step("Execute cicheck with medium risk threshold", () -> verifyThreshold("CIC-002", Risk.MEDIUM));
+    }
 
-   
     @Test
-@Story("Critical Risk Threshold CI Check")
-@Severity(SeverityLevel.CRITICAL)
-@Description("Verify cicheck displays only critical vulnerabilities.")
-@DisplayName("CIC-004: Verify cicheck with critical risk threshold")
-public void testCICheckWithCriticalRiskThreshold() {
-    String fileId = config.getProperty("test.file.id", "304");
-
-    step("Execute cicheck with critical risk threshold", () -> {
-        List<String> cmdList = new ArrayList<>();
-        cmdList.add(config.getCliPath());
-        cmdList.add("cicheck");
-        cmdList.add(fileId);
-        cmdList.add("--risk-threshold");
-        cmdList.add("critical");
-
-        Map<String, String> env = new HashMap<>();
-        env.put("APPKNOX_API_HOST", config.getValidHost());
-        env.put("APPKNOX_ACCESS_TOKEN", config.getValidToken());
-
-        CommandResult result = cliExecutor.executeCommand(cmdList, env);
-
-        Allure.addAttachment("CIC-004 CLI Output", new ByteArrayInputStream(result.getOutput().getBytes()));
-
-        assertThat(result.isSuccess())
-                .as("CI check with critical threshold should execute successfully")
-                .isFalse();
+    @Story("High Risk Threshold CI Check")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verify cicheck displays high and critical vulnerabilities only.")
+    @DisplayName("CIC-003: Verify cicheck with high risk threshold")
+    public void testCICheckWithHighRiskThreshold() {
+        step("Execute cicheck with high risk threshold", () -> verifyThreshold("CIC-003", Risk.HIGH));
+    }
 
-        String output = result.getOutput();
-        assertThat(output)
-                .as("Output should not be empty")
-                .isNotEmpty();
+    @Test
+    @Story("Critical Risk Threshold CI Check")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verify cicheck displays only critical vulnerabilities.")
+    @DisplayName("CIC-004: Verify cicheck with critical risk threshold")
+    public void testCICheckWithCriticalRiskThreshold() {
+        step("Execute cicheck with critical risk threshold", () -> verifyThreshold("CIC-004", Risk.CRITICAL));
+    }
 
-        // Extract RISK column values 
-        Pattern riskPattern = Pattern.compile("\\b(Low|Medium|High|Critical)\\b", Pattern.CASE_INSENSITIVE);
-        Matcher matcher = riskPattern.matcher(output);
-        List<String> risksFound = new ArrayList<>();
+    // Compares the threshold's actual findings with the set derived from the low run, per finding
+    private void verifyThreshold(String testId, Risk threshold) {
+        ThresholdCheck check = differential().get(threshold);
+        Allure.addAttachment(testId + " Expected Findings", check.getExpected().toString());
 
-        while (matcher.find()) {
-            risksFound.add(matcher.group(1));
+        for (Finding finding : check.getExpected()) {
+            assertThat(finding.getRisk())
+                    .as("Risk '" + finding.getRisk() + "' should not appear for " + threshold.cliValue() + " threshold")
+                    .isGreaterThanOrEqualTo(threshold);
         }
-
-        System.out.println("Extracted Risks: " + risksFound);
-        Allure.addAttachment("Extracted Risks", String.join(", ", risksFound));
-
-        // Allowed risk for 'critical' threshold
-        Set<String> allowedRisks = Set.of("Critical");
-
-        //Validate all risks are Critical only
-        for (String risk : risksFound) {
-            assertThat(allowedRisks)
-                    .as("Risk '" + risk + "' should not appear for critical threshold")
-                    .contains(risk);
+        if (!check.isExecuted()) {
+            System.out.println(testId + ": " + threshold.cliValue() + " threshold derived from the low run only");
+            return;
         }
 
-        System.out.println("Validation passed: Only Critical vulnerabilities are displayed.");
-        System.out.println("=== CLI Raw Output ===");
-        System.out.println(result.getOutput());
+        CommandResult result = check.getResult();
+        Allure.addAttachment(testId + " CLI Output", new ByteArrayInputStream(result.getOutput().getBytes()));
 
-    });
-}
+        assertThat(check.getMissing())
+                .as("Findings at or above " + threshold.cliValue() + " missing from the cicheck output")
+                .isEmpty();
+        assertThat(check.getUnexpected())
+                .as("Findings in the cicheck output that are below " + threshold.cliValue() + " or unknown")
+                .isEmpty();
+        assertThat(check.isExitCodeConsistent())
+                .as("cicheck should fail exactly when findings reach the " + threshold.cliValue() + " threshold")
+                .isTrue();
+
+        System.out.println("Validation passed: " + check);
+    }
 
     @Test
     @Story("Invalid Risk Threshold CI Check")
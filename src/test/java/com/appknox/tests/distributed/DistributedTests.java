@@ -0,0 +1,109 @@
+package com.appknox.tests.distributed;
+
+import com.appknox.tests.BaseTest;
+import com.appknox.core.CommandSpec;
+import com.appknox.core.DistributedCoordinator;
+import com.appknox.core.DistributedCoordinator.JobOutcome;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Epic("Appknox CLI Automation")
+@Feature("Distributed Execution")
+@DisplayName("Distributed Execution Test Suite")
+public class DistributedTests extends BaseTest {
+
+    private DistributedCoordinator coordinator;
+    private List<Process> workers;
+
+    @BeforeEach
+    public void startWorkers() throws IOException, InterruptedException {
+        int workerCount = config.getDistributedWorkers();
+        int slots = config.getDistributedSlotsPerWorker();
+        coordinator = new DistributedCoordinator("127.0.0.1", 0,
+                Duration.ofSeconds(config.getCommandTimeout() * 2L), 3);
+        workers = coordinator.spawnLocalWorkers(workerCount, slots, config.getCommandTimeout());
+
+        assertThat(coordinator.awaitWorkers(workerCount * slots, Duration.ofSeconds(30)))
+                .as("All local worker JVMs should connect to the coordinator")
+                .isTrue();
+    }
+
+    @AfterEach
+    public void stopWorkers() {
+        Allure.addAttachment("Worker Stats", coordinator.getWorkerStats().toString());
+        coordinator.close();
+    }
+
+    private List<CommandSpec> analysesJobs(int count) {
+        String fileId = config.getProperty("test.file.id", "1");
+        Map<String, String> env = Map.of(
+                "APPKNOX_API_HOST", config.getValidHost(),
+                "APPKNOX_ACCESS_TOKEN", config.getValidToken()
+        );
+        List<CommandSpec> jobs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            jobs.add(new CommandSpec("analyses-" + i, List.of(config.getCliPath(), "analyses", fileId), env));
+        }
+        return jobs;
+    }
+
+    @Test
+    @Story("Fan-out Across Worker JVMs")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verify that CLI jobs are spread across several worker JVMs and every result is collected.")
+    @DisplayName("DIST-001: Verify jobs fan out across local worker JVMs")
+    public void testFanOutAcrossWorkers() throws InterruptedException {
+        List<CommandSpec> jobs = analysesJobs(12);
+
+        Map<String, JobOutcome> outcomes = coordinator.run(jobs, Duration.ofMinutes(5));
+        Allure.addAttachment("DIST-001 Outcomes", outcomes.values().toString());
+
+        assertThat(outcomes.values())
+                .as("Every job should succeed")
+                .allSatisfy(outcome -> assertThat(outcome.getResult().isSuccess())
+                        .as(outcome.getJobId() + ": " + outcome.getResult().getOutput())
+                        .isTrue());
+        // worker names are host:pid#slot; slots of one JVM do not count as separate workers
+        assertThat(outcomes.values().stream()
+                .map(outcome -> outcome.getWorker().substring(0, outcome.getWorker().lastIndexOf('#')))
+                .distinct().count())
+                .as("Jobs should be executed by more than one worker JVM")
+                .isGreaterThan(1);
+    }
+
+    @Test
+    @Story("Worker Failure")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verify that jobs in flight on a worker that dies are reassigned to the remaining workers.")
+    @DisplayName("DIST-002: Verify job reassignment when a worker dies")
+    public void testReassignmentOnWorkerFailure() throws InterruptedException {
+        List<CommandSpec> jobs = analysesJobs(12);
+
+        Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException ignored) {
+            }
+            workers.get(0).destroyForcibly();
+        });
+        Map<String, JobOutcome> outcomes = coordinator.run(jobs, Duration.ofMinutes(5));
+        Allure.addAttachment("DIST-002 Outcomes", outcomes.values().toString());
+
+        assertThat(outcomes.values())
+                .as("Every job should still succeed after losing a worker")
+                .allSatisfy(outcome -> assertThat(outcome.getResult().isSuccess())
+                        .as(outcome.getJobId() + ": " + outcome.getResult().getOutput())
+                        .isTrue());
+    }
+}
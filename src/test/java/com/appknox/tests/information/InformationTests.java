@@ -2,6 +2,8 @@ package com.appknox.tests.information;
 
 import com.appknox.tests.BaseTest;
 import com.appknox.core.CLIExecutor.CommandResult;
+import com.appknox.core.PhraseMatcher;
+import com.appknox.core.CliTable;
 
 import io.qameta.allure.Allure;
 import io.qameta.allure.Epic;
@@ -16,7 +18,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Arrays;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -63,9 +64,9 @@ public void testFilesListForDynamicProject() {
             .isNotEmpty();
 
     // Extract the first project ID 
-    String firstProjectId = Arrays.stream(projectsOutput.split("\\r?\\n"))
-            .filter(line -> line.trim().matches("^\\d+\\s+.*")) // line starts with ID
-            .map(line -> line.trim().split("\\s+")[0]) // take the first column
+    String firstProjectId = CliTable.parse(projectsOutput, "ID").getRows().stream()
+            .filter(row -> row.getLong("ID") != null)
+            .map(row -> row.get("ID"))
             .findFirst()
             .orElseThrow(() -> new AssertionError("No valid project ID found in output!"));
 
@@ -82,7 +83,8 @@ public void testFilesListForDynamicProject() {
     env.put("APPKNOX_ACCESS_TOKEN", config.getValidToken());
 
     
-    CommandResult filesResult = cliExecutor.executeCommand(cmdList, env);
+    CommandResult filesResult = cliExecutor.executeCommand(cmdList, env,
+            PhraseMatcher.expecting("id", "name", "version"));
 
     assertThat(filesResult.isSuccess())
             .as("Files command should execute successfully")
@@ -93,9 +95,9 @@ public void testFilesListForDynamicProject() {
             .as("Output should contain file list")
             .isNotEmpty();
 
-    assertThat(filesOutput.toLowerCase())
-            .as("Output should contain file details like ID, name, or version")
-            .containsAnyOf("id", "name", "version");
+    assertThat(filesResult.getMatches().anyExpected())
+            .as("Output should contain file details like ID, name, or version: " + filesResult.getMatches())
+            .isTrue();
 
    
     Allure.addAttachment("Projects CLI Output", new ByteArrayInputStream(projectsOutput.getBytes()));
@@ -0,0 +1,75 @@
+package com.appknox.tests.inventory;
+
+import com.appknox.tests.BaseTest;
+import com.appknox.core.InventoryCrawler;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// crawls the whole organization, so it is run on its own rather than from TestSuite
+@Epic("Appknox CLI Automation")
+@Feature("Inventory Crawl")
+@DisplayName("Inventory Crawl Test Suite")
+public class InventoryTests extends BaseTest {
+
+    @Test
+    @Story("INFO-006: Crawl the project, file and analyses inventory")
+    @Description("Crawls projects -> files -> analyses with bounded concurrency, writes the local index and verifies an immediate refresh is served from the cache.")
+    @DisplayName("INFO-006: Verify inventory crawl and cached incremental refresh")
+    public void testInventoryCrawl() throws IOException, InterruptedException {
+        Map<String, String> env = new HashMap<>();
+        env.put("APPKNOX_API_HOST", config.getValidHost());
+        env.put("APPKNOX_ACCESS_TOKEN", config.getValidToken());
+        Path indexPath = Paths.get(config.getInventoryIndexPath());
+
+        InventoryCrawler crawler = newInventoryCrawler(env);
+        InventoryCrawler.Inventory previous = null;
+        if (Files.exists(indexPath)) {
+            try {
+                previous = InventoryCrawler.Inventory.read(indexPath);
+            } catch (IOException e) {
+                System.out.println("INFO-006 ignoring damaged index, crawling from scratch: " + e.getMessage());
+            }
+        }
+        InventoryCrawler.Inventory inventory = crawler.crawl(previous);
+        inventory.write(indexPath);
+        System.out.println("INFO-006 " + inventory + " with " + crawler.getCliCalls() + " CLI calls");
+
+        assertThat(inventory.getProjects())
+                .as("Inventory should contain the organization's projects")
+                .isNotEmpty();
+
+        InventoryCrawler refresher = newInventoryCrawler(env);
+        InventoryCrawler.Inventory refreshed = refresher.crawl(InventoryCrawler.Inventory.read(indexPath));
+
+        assertThat(refresher.getCliCalls())
+                .as("Refresh within the TTLs should not call the CLI")
+                .isZero();
+        assertThat(refreshed.toString())
+                .as("Refreshed inventory should match the index")
+                .isEqualTo(inventory.toString());
+
+        try (InputStream index = Files.newInputStream(indexPath)) {
+            Allure.addAttachment("INFO-006 Inventory Index", "text/tab-separated-values", index, "tsv");
+        }
+    }
+
+    private InventoryCrawler newInventoryCrawler(Map<String, String> env) {
+        return new InventoryCrawler(cliExecutor, config.getCliPath(), env, config.getInventoryParallelism(),
+                Paths.get(config.getInventoryCacheDir()),
+                Duration.ofSeconds(config.getInventoryTtlSeconds("projects")),
+                Duration.ofSeconds(config.getInventoryTtlSeconds("files")),
+                Duration.ofSeconds(config.getInventoryTtlSeconds("analyses")));
+    }
+}
@@ -0,0 +1,100 @@
+package com.appknox.tests.matrix;
+
+import com.appknox.core.CLIExecutor;
+import com.appknox.core.CliVersionMatrix;
+import com.appknox.tests.BaseTest;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@Epic("Appknox CLI Automation")
+@Feature("CLI Version Matrix")
+@DisplayName("CLI Version Matrix Test Suite")
+public class CliVersionMatrixTests extends BaseTest {
+
+    @Test
+    @Story("VERSION-001: Command Results Across CLI Versions")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Runs cli.matrix.commands on every cli.matrix.binaries entry concurrently and compares exit codes, normalized output and p50/p95 latency with the baseline binary")
+    @DisplayName("VERSION-001: Verify candidate CLI binaries behave like the baseline")
+    public void testCommandsAcrossBinaries() {
+        Map<String, String> binaries = config.getCliMatrixBinaries();
+        assumeTrue(binaries.size() > 1, "Configure at least two cli.matrix.binaries to compare");
+
+        Map<String, String> env = Map.of(
+                "APPKNOX_API_HOST", config.getValidHost(),
+                "APPKNOX_ACCESS_TOKEN", config.getValidToken()
+        );
+        // a plain executor: the shared one would feed candidate timings into the latency history and
+        // breaker of the configured CLI, and its retries and hedging would skew the measured latencies
+        CliVersionMatrix matrix = new CliVersionMatrix(new CLIExecutor(config.getCommandTimeout()), binaries, env,
+                config.getCliMatrixRepetitions(), config.getCliMatrixParallelism(),
+                config.getCliMatrixLatencyRegressionFactor(), config.getCliMatrixTailRegressionFactor());
+
+        List<CliVersionMatrix.CommandComparison> comparisons;
+        try {
+            comparisons = matrix.compare(config.getCliMatrixCommands());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted while comparing CLI binaries", e);
+        }
+
+        StringBuilder report = new StringBuilder();
+        comparisons.forEach(report::append);
+        System.out.println(report);
+        Allure.addAttachment("VERSION-001 Comparison", report.toString());
+
+        assertThat(comparisons)
+                .as("Every command should behave the same on all binaries")
+                .allMatch(CliVersionMatrix.CommandComparison::isConsistent);
+    }
+
+    @Test
+    @Story("VERSION-002: Test Selection Across CLI Versions")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Runs matrix.select once per cli.matrix.binaries entry, all binaries in parallel, each in its own JVM")
+    @DisplayName("VERSION-002: Verify selected tests pass on every CLI binary")
+    public void testSelectionAcrossBinaries() throws IOException, InterruptedException {
+        Map<String, String> binaries = config.getCliMatrixBinaries();
+        assumeTrue(binaries.size() > 1, "Configure at least two cli.matrix.binaries to compare");
+
+        Path matrixDir = Paths.get("target", "matrix", "cli");
+        List<MatrixRunner.Cell> cells = new ArrayList<>();
+        binaries.forEach((label, path) -> {
+            Path cellDir = matrixDir.resolve(label);
+            // a profile per binary scopes the IDs the suite stores (test.file.id, ...) to that cell
+            cells.add(new MatrixRunner.Cell(label, Map.of("appknox.profile", "cli-" + label), Map.of(
+                    "APPKNOX_CLI_PATH", path,
+                    "REPORT_OUTPUT_PATH", cellDir.resolve("downloads").toString(),
+                    "TIMEOUT_HISTORY_PATH", cellDir.resolve("latency-history.properties").toString())));
+        });
+
+        MatrixRunner runner = new MatrixRunner(config.getMatrixSelection(), matrixDir, config.getMatrixTimeoutMillis());
+        Map<String, MatrixRunner.CellResult> results = runner.run(cells);
+
+        for (MatrixRunner.CellResult result : results.values()) {
+            System.out.println(result);
+            if (result.getLog() != null && result.getLog().exists()) {
+                try (InputStream log = Files.newInputStream(result.getLog().toPath())) {
+                    Allure.addAttachment("CLI " + result.getName() + " log", "text/plain", log, "log");
+                }
+            }
+        }
+
+        assertThat(results.values())
+                .as("Every CLI binary should pass the selected tests")
+                .allMatch(MatrixRunner.CellResult::isSuccess);
+    }
+}
@@ -0,0 +1,45 @@
+package com.appknox.tests.matrix;
+
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+
+import java.io.PrintWriter;
+
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectMethod;
+
+/**
+ * Entry point of one matrix cell: runs the selected test classes (or Class#method) in a fresh JVM,
+ * prints the summary and exits 0 only when nothing failed.
+ *
+ * Usage: {@code java -cp ... com.appknox.tests.matrix.MatrixLauncher <class[#method]> ...}
+ */
+public class MatrixLauncher {
+
+    public static void main(String[] args) {
+        LauncherDiscoveryRequestBuilder request = LauncherDiscoveryRequestBuilder.request();
+        for (String selection : args) {
+            request.selectors(selection.contains("#") ? selectMethod(selection) : selectClass(selection));
+        }
+        LauncherDiscoveryRequest discovery = request.build();
+
+        Launcher launcher = LauncherFactory.create();
+        SummaryGeneratingListener listener = new SummaryGeneratingListener();
+        launcher.execute(discovery, listener);
+
+        TestExecutionSummary summary = listener.getSummary();
+        PrintWriter out = new PrintWriter(System.out);
+        summary.printTo(out);
+        summary.printFailuresTo(out, 10);
+        out.println(MatrixRunner.SUMMARY_PREFIX + " found=" + summary.getTestsFoundCount()
+                + " succeeded=" + summary.getTestsSucceededCount()
+                + " failed=" + summary.getTotalFailureCount()
+                + " skipped=" + summary.getTestsSkippedCount());
+        out.flush();
+        System.exit(summary.getTotalFailureCount() == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,185 @@
+package com.appknox.tests.matrix;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the same test selection once per matrix cell, every cell in its own JVM and all cells at
+ * once. A cell is a name plus the system properties and environment that make it different
+ * (profile, CLI binary, ...). Separate JVMs keep ConfigManager, executors, circuit breakers and
+ * latency histories from leaking between cells; output goes to target/matrix/&lt;cell&gt;.log.
+ */
+public class MatrixRunner {
+    static final String SUMMARY_PREFIX = "MATRIX-SUMMARY";
+    private static final Pattern SUMMARY = Pattern.compile(SUMMARY_PREFIX
+            + " found=(\\d+) succeeded=(\\d+) failed=(\\d+) skipped=(\\d+)");
+
+    private final List<String> selection;
+    private final Path logDirectory;
+    private final long timeoutMillis;
+
+    public MatrixRunner(List<String> selection, Path logDirectory, long timeoutMillis) {
+        this.selection = selection;
+        this.logDirectory = logDirectory;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public Map<String, CellResult> run(List<Cell> cells) throws IOException, InterruptedException {
+        Files.createDirectories(logDirectory);
+        Map<String, Future<CellResult>> futures = new LinkedHashMap<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Cell cell : cells) {
+                futures.put(cell.getName(), pool.submit(() -> runCell(cell)));
+            }
+            Map<String, CellResult> results = new LinkedHashMap<>();
+            for (Map.Entry<String, Future<CellResult>> entry : futures.entrySet()) {
+                try {
+                    results.put(entry.getKey(), entry.getValue().get());
+                } catch (ExecutionException e) {
+                    results.put(entry.getKey(), new CellResult(entry.getKey(), -1, 0, null,
+                            "Exception: " + e.getCause().getMessage()));
+                }
+            }
+            return results;
+        }
+    }
+
+    private CellResult runCell(Cell cell) throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        String allureResults = System.getProperty("allure.results.directory");
+        if (allureResults != null) {
+            command.add("-Dallure.results.directory=" + allureResults);
+        }
+        cell.getSystemProperties().forEach((key, value) -> command.add("-D" + key + "=" + value));
+        command.add(MatrixLauncher.class.getName());
+        command.addAll(selection);
+
+        File log = logDirectory.resolve(cell.getName().replaceAll("[^A-Za-z0-9._-]", "_") + ".log").toFile();
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.environment().putAll(cell.getEnv());
+        pb.redirectErrorStream(true);
+        pb.redirectOutput(log);
+
+        long start = System.nanoTime();
+        Process process = pb.start();
+        if (!process.waitFor(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly();
+            return new CellResult(cell.getName(), -1, (System.nanoTime() - start) / 1_000_000, log,
+                    "Cell timed out after " + timeoutMillis + " ms");
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        return new CellResult(cell.getName(), process.exitValue(), millis, log, summaryLine(log));
+    }
+
+    private static String summaryLine(File log) throws IOException {
+        String summary = null;
+        for (String line : Files.readAllLines(log.toPath())) {
+            if (line.startsWith(SUMMARY_PREFIX)) summary = line;
+        }
+        return summary;
+    }
+
+    public static class Cell {
+        private final String name;
+        private final Map<String, String> systemProperties;
+        private final Map<String, String> env;
+
+        public Cell(String name, Map<String, String> systemProperties, Map<String, String> env) {
+            this.name = name;
+            this.systemProperties = systemProperties;
+            this.env = env;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Map<String, String> getSystemProperties() {
+            return systemProperties;
+        }
+
+        public Map<String, String> getEnv() {
+            return env;
+        }
+    }
+
+    public static class CellResult {
+        private final String name;
+        private final int exitCode;
+        private final long durationMillis;
+        private final File log;
+        private final String summary;
+
+        public CellResult(String name, int exitCode, long durationMillis, File log, String summary) {
+            this.name = name;
+            this.exitCode = exitCode;
+            this.durationMillis = durationMillis;
+            this.log = log;
+            this.summary = summary;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getExitCode() {
+            return exitCode;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public File getLog() {
+            return log;
+        }
+
+        public boolean isSuccess() {
+            return exitCode == 0;
+        }
+
+        public int getTestsFailed() {
+            return count(3);
+        }
+
+        public int getTestsSucceeded() {
+            return count(2);
+        }
+
+        private int count(int group) {
+            if (summary == null) return -1;
+            Matcher matcher = SUMMARY.matcher(summary);
+            return matcher.find() ? Integer.parseInt(matcher.group(group)) : -1;
+        }
+
+        @Override
+        public String toString() {
+            return "CellResult{" +
+                    "name='" + name + '\'' +
+                    ", exitCode=" + exitCode +
+                    ", durationMillis=" + durationMillis +
+                    ", summary='" + summary + '\'' +
+                    ", log=" + log +
+                    '}';
+        }
+    }
+}
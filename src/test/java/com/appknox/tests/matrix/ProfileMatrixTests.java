@@ -0,0 +1,61 @@
+package com.appknox.tests.matrix;
+
+import com.appknox.tests.BaseTest;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@Epic("Appknox CLI Automation")
+@Feature("Profile Matrix")
+@DisplayName("Profile Matrix Test Suite")
+public class ProfileMatrixTests extends BaseTest {
+
+    @Test
+    @Story("MATRIX-001: Run Suite Once Per Profile")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Runs matrix.select once per profile listed in 'profiles', all profiles in parallel, each in its own JVM")
+    @DisplayName("MATRIX-001: Verify every configured profile passes the selected tests")
+    public void testProfileMatrix() throws IOException, InterruptedException {
+        assumeTrue(config.getActiveProfile() == null, "Already running inside a matrix cell");
+        List<String> profiles = config.getProfiles();
+        assumeTrue(!profiles.isEmpty(), "No profiles configured, set profiles=staging,qa,... in config.properties");
+
+        Path matrixDir = Paths.get("target", "matrix", "profiles");
+        List<MatrixRunner.Cell> cells = new ArrayList<>();
+        for (String profile : profiles) {
+            // Per-profile downloads and latency history, unless the profile configures its own
+            Path cellDir = matrixDir.resolve(profile);
+            cells.add(new MatrixRunner.Cell(profile, Map.of("appknox.profile", profile), Map.of(
+                    "REPORT_OUTPUT_PATH", cellDir.resolve("downloads").toString(),
+                    "TIMEOUT_HISTORY_PATH", cellDir.resolve("latency-history.properties").toString())));
+        }
+
+        MatrixRunner runner = new MatrixRunner(config.getMatrixSelection(), matrixDir, config.getMatrixTimeoutMillis());
+        Map<String, MatrixRunner.CellResult> results = runner.run(cells);
+
+        for (MatrixRunner.CellResult result : results.values()) {
+            System.out.println(result);
+            if (result.getLog() != null && result.getLog().exists()) {
+                try (InputStream log = Files.newInputStream(result.getLog().toPath())) {
+                    Allure.addAttachment("Profile " + result.getName() + " log", "text/plain", log, "log");
+                }
+            }
+        }
+
+        assertThat(results.values())
+                .as("Every profile should pass the selected tests")
+                .allMatch(MatrixRunner.CellResult::isSuccess);
+    }
+}
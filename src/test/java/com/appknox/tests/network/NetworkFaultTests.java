@@ -0,0 +1,104 @@
+package com.appknox.tests.network;
+
+import com.appknox.tests.BaseTest;
+import com.appknox.core.CLIExecutor.CommandResult;
+import com.appknox.core.FaultInjectionProxy;
+import com.appknox.core.FaultInjectionProxy.FaultRule;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Epic("Appknox CLI Automation")
+@Feature("Network Fault Injection")
+@DisplayName("Network Fault Injection Test Suite")
+public class NetworkFaultTests extends BaseTest {
+
+    private FaultInjectionProxy proxy;
+
+    @BeforeEach
+    public void startProxy() throws IOException {
+        proxy = new FaultInjectionProxy(config.getValidHost()).start();
+    }
+
+    @AfterEach
+    public void stopProxy() {
+        Allure.addAttachment("Proxy Exchanges", proxy.getExchanges().toString());
+        proxy.close();
+    }
+
+    @Test
+    @Story("Slow Network")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verify that whoami still succeeds when every API call is delayed by the proxy.")
+    @DisplayName("NET-001: Verify whoami succeeds with injected latency")
+    public void testWhoamiWithLatency() {
+        proxy.addRule(FaultRule.forAllRoutes().latency(2000));
+
+        CommandResult result = runAppknoxCommand("whoami", proxy.getUrl(), config.getValidToken());
+
+        assertThat(result.isSuccess())
+                .as("whoami should tolerate a 2 second delay")
+                .isTrue();
+        assertThat(proxy.getExchanges())
+                .as("Requests should have been routed through the proxy")
+                .isNotEmpty()
+                .allSatisfy(exchange -> assertThat(exchange.getDurationMillis()).isGreaterThanOrEqualTo(2000));
+
+        Allure.addAttachment("NET-001 Output", result.getOutput());
+    }
+
+    @Test
+    @Story("Connection Reset")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verify that the CLI fails fast with an error when the connection is reset.")
+    @DisplayName("NET-002: Verify whoami fails cleanly on connection reset")
+    public void testWhoamiWithConnectionReset() {
+        proxy.addRule(FaultRule.forAllRoutes().reset());
+
+        CommandResult result = runAppknoxCommand("whoami", proxy.getUrl(), config.getValidToken());
+
+        assertThat(result.isTimeout())
+                .as("A reset connection should not hang until the command timeout")
+                .isFalse();
+        assertThat(result.isSuccess())
+                .as("whoami should fail when the connection is reset")
+                .isFalse();
+
+        Allure.addAttachment("NET-002 Output", result.getOutput());
+    }
+
+    @Test
+    @Story("Truncated Response")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verify that the CLI reports an error instead of partial data when a response is truncated.")
+    @DisplayName("NET-003: Verify analyses fails cleanly on truncated response")
+    public void testAnalysesWithTruncatedResponse() {
+        String fileId = config.getProperty("test.file.id", "1");
+        proxy.addRule(FaultRule.forRoute("GET .*analyses").truncateAfter(64));
+
+        List<String> cmdList = List.of(config.getCliPath(), "analyses", fileId);
+        Map<String, String> env = Map.of(
+                "APPKNOX_API_HOST", proxy.getUrl(),
+                "APPKNOX_ACCESS_TOKEN", config.getValidToken()
+        );
+
+        CommandResult result = cliExecutor.executeCommand(cmdList, env);
+
+        assertThat(result.isTimeout())
+                .as("A truncated response should not hang until the command timeout")
+                .isFalse();
+        assertThat(result.isSuccess())
+                .as("analyses should fail when the response is truncated")
+                .isFalse();
+
+        Allure.addAttachment("NET-003 Output", result.getOutput());
+    }
+}
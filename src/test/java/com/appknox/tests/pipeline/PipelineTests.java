@@ -0,0 +1,60 @@
+package com.appknox.tests.pipeline;
+
+import com.appknox.tests.BaseTest;
+import com.appknox.core.BatchUploader;
+import com.appknox.core.ScanPipeline;
+import com.appknox.core.ScanPipeline.PipelineResult;
+import io.qameta.allure.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Epic("Appknox CLI Automation")
+@Feature("Scan Pipeline")
+@DisplayName("Scan Pipeline Test Suite")
+public class PipelineTests extends BaseTest {
+
+    @Test
+    @Story("Staged Multi-App Pipeline")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verify that every app flows through upload, analyses, cicheck, report creation and download with overlapping stages.")
+    @DisplayName("PIPE-001: Verify staged pipeline for all apps in a directory")
+    public void testStagedPipeline() throws IOException, InterruptedException {
+        String directory = config.getProperty("pipeline.apps.dir", "src/test/resources/testdata/test-files");
+        List<Path> apps = BatchUploader.collectFiles(directory);
+
+        Map<String, String> env = Map.of(
+                "APPKNOX_API_HOST", config.getValidHost(),
+                "APPKNOX_ACCESS_TOKEN", config.getValidToken()
+        );
+
+        ScanPipeline pipeline = new ScanPipeline(cliExecutor, config.getCliPath(), env,
+                new File(config.getProperty("report.output.path", "./downloads"), "pipeline"),
+                config.getProperty("pipeline.risk.threshold", "low"),
+                Duration.ofSeconds(config.getPipelineAnalysesDeadlineSeconds()),
+                Duration.ofSeconds(config.getPipelineReportDeadlineSeconds()),
+                readinessAwaiter(), config.getPipelineWorkers(), config.getPipelineQueueCapacity());
+
+        Allure.step("Run " + apps.size() + " apps through the pipeline");
+        PipelineResult result = pipeline.run(apps);
+
+        Allure.addAttachment("PIPE-001 Pipeline Metrics", result.toString());
+        System.out.println(result);
+
+        Allure.step("Verify every app produced a downloaded report");
+        assertThat(result.getJobs())
+                .as("Every app should leave the pipeline")
+                .hasSize(apps.size())
+                .allSatisfy(job -> assertThat(job.isSuccess())
+                        .as(job.getApp() + " failed at " + job.getFailedStage() + ": " + job.getError())
+                        .isTrue());
+    }
+}
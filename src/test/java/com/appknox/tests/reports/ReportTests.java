@@ -3,29 +3,74 @@ package com.appknox.tests.reports;
 
 import com.appknox.tests.BaseTest;
 import com.appknox.core.CLIExecutor.CommandResult;
+import com.appknox.core.PhraseMatcher;
+import com.appknox.core.ReportConsistencyChecker;
+import com.appknox.core.ReportDiff;
+import com.appknox.core.CliTable;
+import com.appknox.core.CsvReportValidator;
+import com.appknox.core.FindingsIndex;
+import com.appknox.core.ReportSummary;
+import com.appknox.core.SarifReportValidator;
+import com.appknox.core.XlsxReportValidator;
 import io.qameta.allure.*;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 @Epic("Appknox CLI Automation")
 @Feature("Reports Module")
 @DisplayName("Report Generation Test Suite")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 public class ReportTests extends BaseTest {
+    // REP-010 to REP-012 read the reports downloaded earlier in this class, not tracked copies
+    private static long classStarted;
+
+    @BeforeAll
+    static void markClassStart() {
+        classStarted = System.currentTimeMillis() / 1000 * 1000;
+    }
+
+    private static boolean isFresh(File file) {
+        return file.length() > 0 && file.lastModified() >= classStarted;
+    }
+
+    /**
+     * "appknox sarif" prints the report or writes ./report.sarif; returns a file holding this run's report.
+     */
+    private static Path sarifReport(String output, long started, String outputPath) throws IOException {
+        if (output.trim().startsWith("{")) {
+            Path printed = Path.of(outputPath, "report_test.sarif");
+            Files.createDirectories(printed.getParent());
+            Files.writeString(printed, output);
+            return printed;
+        }
+        // report.sarif is tracked in the repository, so a written report must be newer than the run
+        Path written = Path.of("report.sarif");
+        assertThat(Files.exists(written) && Files.getLastModifiedTime(written).toMillis() >= started)
+                .as("report.sarif should be written by this run: " + output)
+                .isTrue();
+        return written;
+    }
 
  @Test
+ @Order(1)
 @Story("Report Creation")
 @Severity(SeverityLevel.CRITICAL)
 @Description("Verify that a report is successfully created for a valid file ID using 'appknox reports create' command.")
@@ -58,19 +103,13 @@ public void testReportCreation() {
 
 
     // Extract numeric report ID from output
-    String reportId = output.replaceAll("[^0-9]", "");
+    String reportId = CliTable.idField(output);
     System.out.println("Extracted Report ID: " + reportId);
 
     // Save to config.properties
-    if (!reportId.isEmpty()) {
-        try (FileOutputStream out = new FileOutputStream("src/test/resources/config.properties", true)) {
-            Properties props = new Properties();
-            props.setProperty("test.report.id", reportId);
-            props.store(out, null);
-            System.out.println("Saved Report ID to config.properties: " + reportId);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    if (reportId != null) {
+        config.storeProperty("test.report.id", reportId);
+        System.out.println("Saved Report ID to config.properties: " + reportId);
     } else {
         System.out.println("No Report ID found in output.");
     }
@@ -81,6 +120,7 @@ public void testReportCreation() {
 
 
     @Test
+    @Order(2)
     @Story("Report Download")
     @Severity(SeverityLevel.NORMAL)
     @Description("Verify that a CSV report is downloaded successfully for a valid report ID.")
@@ -119,6 +159,14 @@ public void testReportCreation() {
      } catch (InterruptedException ex) {
      }
 
+        ReportSummary report = new CsvReportValidator().validate(csvFile.toPath());
+        Allure.addAttachment("REP-004 CSV Validation", report.toString());
+        assertThat(report.getErrors()).as("CSV report problems: " + report).isEmpty();
+        assertThat(report.getRows()).as("CSV report should list test cases").isGreaterThan(0);
+        assertThat(report.getSeverityCounts().values().stream().mapToLong(Long::longValue).sum())
+                .as("Every row should have a severity")
+                .isEqualTo(report.getRows());
+
         Allure.addAttachment("REP-004 CLI Output", new ByteArrayInputStream(result.getOutput().getBytes()));
         Allure.addAttachment("Downloaded CSV Report", "text/csv", new FileInputStream(csvFile), "csv");
         System.out.println("for report id "+reportId);
@@ -126,6 +174,7 @@ public void testReportCreation() {
     }
 
     @Test
+    @Order(3)
     @Story("Report Download")
     @Severity(SeverityLevel.CRITICAL)
     @Description("Verify that an Excel report is downloaded successfully for a valid report ID.")
@@ -164,6 +213,18 @@ public void testReportCreation() {
      } catch (InterruptedException ex) {
      }
 
+        ReportSummary report = new XlsxReportValidator().validate(excelFile.toPath());
+        Allure.addAttachment("REP-005 Excel Validation", report.toString());
+        assertThat(report.getErrors()).as("Excel report problems: " + report).isEmpty();
+        assertThat(report.getRows()).as("Excel report should list test cases").isGreaterThan(0);
+
+        // REP-004 downloads the CSV export of the same report; both must describe the same findings
+        File csvFile = new File(outputPath + File.separator + "report_test.csv");
+        if (csvFile.length() > 0) {
+            ReportSummary csv = new CsvReportValidator().validate(csvFile.toPath());
+            assertThat(report.differencesFrom(csv)).as("Excel and CSV exports should agree").isEmpty();
+        }
+
         Allure.addAttachment("REP-005 CLI Output", new ByteArrayInputStream(result.getOutput().getBytes()));
         Allure.addAttachment("Downloaded Excel Report", 
                 "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
@@ -174,11 +235,12 @@ public void testReportCreation() {
     }
 
     @Test
+    @Order(4)
     @Story("SARIF Report Generation")
     @Severity(SeverityLevel.CRITICAL)
     @Description("Verify that SARIF format report is generated successfully for a valid file ID.")
     @DisplayName("REP-009: Verify SARIF report generation for valid file ID")
-    public void testSarifReportGeneration() {
+    public void testSarifReportGeneration() throws IOException {
         String fileId = config.getProperty("test.file.id", "1");
 
         List<String> cmdList = List.of(
@@ -190,8 +252,10 @@ public void testReportCreation() {
                 "APPKNOX_ACCESS_TOKEN", config.getValidToken()
         );
 
+        long started = System.currentTimeMillis() / 1000 * 1000;
         Allure.step("Execute CLI command: appknox sarif " + fileId);
-        CommandResult result = cliExecutor.executeCommand(cmdList, env);
+        CommandResult result = cliExecutor.executeCommand(cmdList, env,
+                PhraseMatcher.expecting("sarif", "version", "runs", "results"));
 
         
 
@@ -200,12 +264,132 @@ public void testReportCreation() {
         assertThat(output).isNotEmpty();
       
 
-        String lowerOutput = output.toLowerCase();
-        assertThat(lowerOutput).containsAnyOf("sarif", "version", "runs", "results");
+        assertThat(result.getMatches().anyExpected()).as("SARIF output: " + result.getMatches()).isTrue();
+
+        SarifReportValidator.Result sarif = new SarifReportValidator().validate(
+                sarifReport(output, started, config.getProperty("report.output.path", "./downloads")));
+        Allure.addAttachment("REP-009 SARIF Validation", sarif + "\n" + sarif.getRules().values());
+        assertThat(sarif.getErrors()).as("SARIF report problems: " + sarif).isEmpty();
+        assertThat(sarif.getRules()).as("SARIF report should define rules").isNotEmpty();
         System.out.println("REP-009 Output - SARIF report generated for File ID: " + fileId);
 
         Allure.addAttachment("REP-009 CLI Output", new ByteArrayInputStream(output.getBytes()));
         config.reload();
 
     }
+
+    @Test
+    @Order(5)
+    @Story("Report Consistency")
+    @Severity(SeverityLevel.CRITICAL)
+    @Description("Verify that the CSV, Excel and SARIF reports and cicheck output of one file list the same findings with the same severities.")
+    @DisplayName("REP-010: Verify CSV, Excel, SARIF and cicheck agree on findings")
+    public void testReportFormatsConsistent() throws InterruptedException, IOException {
+        String fileId = config.getProperty("test.file.id", "1");
+        String outputPath = config.getProperty("report.output.path", "./downloads");
+        File csvFile = new File(outputPath + File.separator + "report_test.csv");
+        File excelFile = new File(outputPath + File.separator + "report_test.xlsx");
+        assumeTrue(isFresh(csvFile) && isFresh(excelFile), "Needs the reports downloaded by REP-004 and REP-005 in this run");
+        String reportFileId = new CsvReportValidator().validate(csvFile.toPath()).getFileId();
+        assumeTrue(fileId.equals(reportFileId),
+                "test.report.id is a report of file " + reportFileId + ", not of test.file.id " + fileId);
+
+        Map<String, String> env = Map.of(
+                "APPKNOX_API_HOST", config.getValidHost(),
+                "APPKNOX_ACCESS_TOKEN", config.getValidToken()
+        );
+        long started = System.currentTimeMillis() / 1000 * 1000;
+        Allure.step("Execute CLI command: appknox sarif " + fileId);
+        CommandResult sarifRun = cliExecutor.executeCommand(List.of(config.getCliPath(), "sarif", fileId), env);
+        assertThat(sarifRun.isSuccess()).as("SARIF generation: " + sarifRun.getOutput()).isTrue();
+        Path sarifFile = sarifReport(sarifRun.getOutput(), started, outputPath);
+
+        Allure.step("Execute CLI command: appknox cicheck " + fileId + " --risk-threshold low");
+        CommandResult cicheck = cliExecutor.executeCommand(
+                List.of(config.getCliPath(), "cicheck", fileId, "--risk-threshold", "low"), env);
+
+        ReportConsistencyChecker.Result consistency = new ReportConsistencyChecker()
+                .check(csvFile.toPath(), excelFile.toPath(), sarifFile, cicheck.getOutput());
+        Allure.addAttachment("REP-010 Consistency", consistency.toString());
+
+        assertThat(consistency.getErrors()).as("Report problems").isEmpty();
+        assertThat(consistency.getMismatches()).as("Findings that differ between formats").isEmpty();
+    }
+
+    @Test
+    @Order(6)
+    @Story("Report Diff")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verify the findings diff between a baseline summary CSV and the one downloaded by REP-004; a report diffed with itself has no changes.")
+    @DisplayName("REP-011: Verify findings diff against a baseline CSV report")
+    public void testReportDiff() throws IOException {
+        String reportId = config.getProperty("test.report.id", "1");
+        String baselineId = config.getProperty("test.baseline.report.id", reportId);
+        String outputPath = config.getProperty("report.output.path", "./downloads");
+        File csvFile = new File(outputPath + File.separator + "report_test.csv");
+        assumeTrue(isFresh(csvFile), "Needs the CSV report downloaded by REP-004 in this run");
+
+        File baselineFile = csvFile;
+        if (!baselineId.equals(reportId)) {
+            baselineFile = new File(outputPath + File.separator + "report_baseline.csv");
+            if (baselineFile.exists()) baselineFile.delete();
+            Map<String, String> env = Map.of(
+                    "APPKNOX_API_HOST", config.getValidHost(),
+                    "APPKNOX_ACCESS_TOKEN", config.getValidToken()
+            );
+            Allure.step("Execute CLI command: appknox reports download summary-csv " + baselineId);
+            CommandResult result = cliExecutor.executeCommand(List.of(config.getCliPath(),
+                    "reports", "download", "summary-csv", baselineId, "--output", baselineFile.getPath()), env);
+            assertThat(result.isSuccess()).as("Baseline download: " + result.getOutput()).isTrue();
+        }
+
+        ReportDiff.Result diff = new ReportDiff().diff(baselineFile.toPath(), csvFile.toPath());
+        Allure.addAttachment("REP-011 Report Diff", diff + "\n" + String.join("\n",
+                diff.getChanges().stream().map(Object::toString).toList()));
+
+        assertThat(diff.getErrors()).as("Report problems").isEmpty();
+        if (baselineFile == csvFile) {
+            assertThat(diff.getChanges()).as("A report diffed with itself").isEmpty();
+        }
+        System.out.println("REP-011 Output - " + diff);
+    }
+
+    @Test
+    @Order(7)
+    @Story("Findings Index")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verify that the findings index built from the CSV downloaded by REP-004 answers severity and compliance queries consistently with the report.")
+    @DisplayName("REP-012: Verify findings index queries over a CSV report")
+    public void testFindingsIndex() throws IOException {
+        String outputPath = config.getProperty("report.output.path", "./downloads");
+        File csvFile = new File(outputPath + File.separator + "report_test.csv");
+        assumeTrue(isFresh(csvFile), "Needs the CSV report downloaded by REP-004 in this run");
+
+        FindingsIndex index = new FindingsIndex();
+        ReportSummary report = index.add(csvFile.toPath());
+        Allure.addAttachment("REP-012 Findings Index", index + "\nCWE: " + index.getCodes("CWE"));
+
+        assertThat(report.getErrors()).as("CSV report problems").isEmpty();
+        assertThat((long) index.size()).isEqualTo(report.getRows());
+        // the index files rows under their severity after any risk override
+        for (FindingsIndex.Severity severity : FindingsIndex.Severity.values()) {
+            String name = severity.name().charAt(0) + severity.name().substring(1).toLowerCase();
+            assertThat((long) index.query().severity(severity).count())
+                    .as(name + " rows")
+                    .isEqualTo(report.getEffectiveSeverityCount(name));
+        }
+
+        // every row of a code's query carries that code, whatever other criteria are combined
+        for (String cwe : index.getCodes("CWE").keySet()) {
+            List<FindingsIndex.Finding> findings = index.query()
+                    .atLeast(FindingsIndex.Severity.LOW)
+                    .compliance("CWE", cwe)
+                    .findings();
+            for (FindingsIndex.Finding finding : findings) {
+                assertThat(finding.getCodes("CWE")).as(finding.toString()).contains(cwe);
+                assertThat(finding.getSeverity()).isGreaterThanOrEqualTo(FindingsIndex.Severity.LOW);
+            }
+        }
+        System.out.println("REP-012 Output - " + index);
+    }
 }
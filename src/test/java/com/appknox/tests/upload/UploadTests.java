@@ -4,16 +4,17 @@
 package com.appknox.tests.upload;
 
 import com.appknox.tests.BaseTest;
+import com.appknox.core.BatchUploader;
 import com.appknox.core.CLIExecutor.CommandResult;
+import com.appknox.core.PhraseMatcher;
+import com.appknox.core.CliTable;
 import io.qameta.allure.*;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -21,7 +22,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -68,13 +68,7 @@ public void testValidApkUpload() {
     System.out.println("UPLOAD-001 Output:\n" + output);
 
     //Extract last numeric line as File ID
-    String fileId = null;
-    for (String line : output.split("\\R")) { // \R matches all line endings
-        line = line.trim();
-        if (line.matches("\\d+")) {
-            fileId = line; // last numeric line wins
-        }
-    }
+    String fileId = CliTable.lastNumericLine(output);
 
     assertThat(fileId)
             .as("File ID should be extracted correctly from upload output")
@@ -82,21 +76,9 @@ public void testValidApkUpload() {
 
     System.out.println("Extracted File ID: " + fileId);
 
-    //Save File ID to config.properties //overwrite existing valueee
-    try {
-        Path configPath = Paths.get("src/test/resources/config.properties");
-        Properties props = new Properties();
-        try (InputStream input = Files.newInputStream(configPath)) {
-            props.load(input);
-        }
-        props.setProperty("test.file.id", fileId);
-        try (OutputStream outputStream = Files.newOutputStream(configPath)) {
-            props.store(outputStream, "Updated after upload test");
-        }
-        System.out.println("Saved File ID to config.properties: " + fileId);
-    } catch (IOException e) {
-        throw new RuntimeException("Failed to save file ID to config file", e);
-    }
+    //Save File ID to config.properties (scoped to the active profile) //overwrite existing valueee
+    config.storeProperty("test.file.id", fileId);
+    System.out.println("Saved File ID to config.properties: " + fileId);
 }
 
     @Test
@@ -120,7 +102,8 @@ public void testValidApkUpload() {
         env.put("APPKNOX_ACCESS_TOKEN", config.getValidToken());
 
         Allure.step("Execute CLI command");
-        CommandResult result = cliExecutor.executeCommand(cmdList, env);
+        CommandResult result = cliExecutor.executeCommand(cmdList, env,
+                PhraseMatcher.expecting("file not found", "no such file", "does not exist", "error"));
 
         Allure.step("Verify upload fails for non-existent file");
         assertThat(result.isSuccess())
@@ -128,9 +111,9 @@ public void testValidApkUpload() {
                 .isFalse();
 
         Allure.step("Verify error message is shown");
-        assertThat(result.getOutput().toLowerCase())
-                .as("Output should contain file not found error")
-                .containsAnyOf("file not found", "no such file", "does not exist", "error");
+        assertThat(result.getMatches().anyExpected())
+                .as("Output should contain file not found error: " + result.getMatches())
+                .isTrue();
 
         Allure.addAttachment("UPLOAD-003 Command Output", new ByteArrayInputStream(result.getOutput().getBytes()));
 
@@ -199,7 +182,8 @@ public void testValidApkUpload() {
         env.put("APPKNOX_ACCESS_TOKEN", config.getValidToken());
 
         Allure.step("Execute CLI command");
-        CommandResult result = cliExecutor.executeCommand(cmdList, env);
+        CommandResult result = cliExecutor.executeCommand(cmdList, env,
+                PhraseMatcher.expecting("required", "missing", "argument", "parameter", "usage"));
 
         Allure.step("Verify upload fails without file path");
         assertThat(result.isSuccess())
@@ -207,9 +191,9 @@ public void testValidApkUpload() {
                 .isFalse();
 
         Allure.step("Verify error message mentions missing argument");
-        assertThat(result.getOutput().toLowerCase())
-                .as("Output should indicate missing required parameter")
-                .containsAnyOf("required", "missing", "argument", "parameter", "usage");
+        assertThat(result.getMatches().anyExpected())
+                .as("Output should indicate missing required parameter: " + result.getMatches())
+                .isTrue();
 
         Allure.addAttachment("UPLOAD-005 Command Output", new ByteArrayInputStream(result.getOutput().getBytes()));
 
@@ -239,12 +223,13 @@ public void testValidApkUpload() {
         env.put("APPKNOX_ACCESS_TOKEN", config.getValidToken());
 
         Allure.step("Execute upload command");
-        CommandResult result = cliExecutor.executeCommand(cmdList, env);
+        CommandResult result = cliExecutor.executeCommand(cmdList, env,
+                PhraseMatcher.expecting("the app you are trying to scan is not a valid mobile application"));
 
         Allure.step("Verify output contains invalid file format message");
-        assertThat(result.getOutput().toLowerCase())
-                .as("Output should indicate invalid file format")
-                .containsAnyOf("the app you are trying to scan is not a valid mobile application");
+        assertThat(result.getMatches().anyExpected())
+                .as("Output should indicate invalid file format: " + result.getMatches())
+                .isTrue();
 
         Allure.addAttachment("UPLOAD-007 Command Output", new ByteArrayInputStream(result.getOutput().getBytes()));
 
@@ -286,4 +271,39 @@ public void testValidApkUpload() {
 
         System.out.println("UPLOAD-008 Output - File ID: " + result.getOutput());
     }
+
+    @Test
+    @Story("UPLOAD-009: Batch Upload of a Directory")
+    @Severity(SeverityLevel.NORMAL)
+    @Description("Verify that every APK in the test-files directory is uploaded concurrently and each gets a file ID.")
+    @DisplayName("UPLOAD-009: Verify batch upload of an application directory")
+    public void testBatchDirectoryUpload() throws IOException {
+        Allure.step("Get batch directory and parallelism from config");
+        String directory = config.getProperty("test.batch.dir", "src/test/resources/testdata/test-files");
+        int parallelism = config.getBatchUploadParallelism();
+
+        Map<String, String> env = new HashMap<>();
+        env.put("APPKNOX_API_HOST", config.getValidHost());
+        env.put("APPKNOX_ACCESS_TOKEN", config.getValidToken());
+
+        Allure.step("Upload all APK/IPA files with parallelism " + parallelism);
+        BatchUploader uploader = new BatchUploader(cliExecutor, config.getCliPath(), env, parallelism);
+        List<BatchUploader.ManifestEntry> manifest = uploader.upload(directory);
+
+        Path manifestPath = Paths.get("target", "batch-upload-manifest.csv");
+        BatchUploader.writeManifest(manifest, manifestPath);
+        try (InputStream manifestStream = Files.newInputStream(manifestPath)) {
+            Allure.addAttachment("UPLOAD-009 Manifest", "text/csv", manifestStream, "csv");
+        }
+
+        Allure.step("Verify every file was uploaded with a file ID");
+        assertThat(manifest)
+                .as("Batch should contain the APK files in the directory")
+                .isNotEmpty()
+                .allSatisfy(entry -> assertThat(entry.getFileId())
+                        .as("File ID for " + entry.getPath() + " (" + entry.getError() + ")")
+                        .isNotNull());
+
+        System.out.println("UPLOAD-009 Manifest: " + manifest);
+    }
 }